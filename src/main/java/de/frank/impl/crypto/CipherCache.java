@@ -0,0 +1,135 @@
+package de.frank.impl.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AES-GCM encryption with a bounded per thread LRU of Cipher instances per key - for many (tenant) keys, where a single
+ * thread local Cipher would be re-keyed on almost every call.
+ * <p>
+ * Every message gets a fresh random 12 byte IV - GCM must never see the same key/IV pair twice, so a Cipher is never
+ * reused without init(). What a cache hit saves is Cipher.getInstance() and the AES key expansion: the JDK AES
+ * implementation skips it when a Cipher is re-initialized with the key it already has.
+ * <p>
+ * Message format: [12 byte IV][cipher text][16 byte tag]. The ByteBuffer methods work on direct buffers without
+ * copying the payload into a byte[] (GCM implements doFinal(ByteBuffer, ByteBuffer) natively since JDK 17).
+ * <p>
+ * Keys are compared with equals() - SecretKeySpec compares the key bytes, so a key re-created per call still hits.
+ */
+public final class CipherCache {
+    public static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    public static final int IV_LENGTH = 12;
+    public static final int TAG_LENGTH = 16;
+    public static final int OVERHEAD = IV_LENGTH + TAG_LENGTH;
+
+    private final int maxKeysPerThread;
+    private final ThreadLocal<ThreadState> states;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CipherCache(int maxKeysPerThread) {
+        if (maxKeysPerThread <= 0) {
+            throw new IllegalArgumentException("maxKeysPerThread must be > 0: " + maxKeysPerThread);
+        }
+        this.maxKeysPerThread = maxKeysPerThread;
+        this.states = ThreadLocal.withInitial(ThreadState::new);
+    }
+
+    /**
+     * Thread confined: the LRU, the IV source and a reused IV array.
+     */
+    private final class ThreadState {
+        final SecureRandom random = new SecureRandom();
+        final byte[] iv = new byte[IV_LENGTH];
+        final Map<SecretKey, Cipher> ciphers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SecretKey, Cipher> eldest) {
+                return size() > maxKeysPerThread;
+            }
+        };
+
+        Cipher cipherFor(SecretKey key) throws GeneralSecurityException {
+            Cipher cipher = ciphers.get(key);
+            if (cipher != null) {
+                hits.increment();
+                return cipher;
+            }
+            misses.increment();
+            cipher = Cipher.getInstance(TRANSFORMATION);
+            ciphers.put(key, cipher);
+            return cipher;
+        }
+    }
+
+    /**
+     * Encrypts plain.remaining() bytes into out, advancing both positions.
+     *
+     * @param out needs plain.remaining() + {@link #OVERHEAD} bytes remaining
+     * @return bytes written to out
+     */
+    public int encrypt(SecretKey key, ByteBuffer plain, ByteBuffer out) throws GeneralSecurityException {
+        if (out.remaining() < plain.remaining() + OVERHEAD) {
+            throw new ShortBufferException("need " + (plain.remaining() + OVERHEAD) + " bytes: " + out.remaining());
+        }
+        ThreadState state = states.get();
+        Cipher cipher = state.cipherFor(key);
+        state.random.nextBytes(state.iv);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, state.iv));
+        out.put(state.iv);
+        return IV_LENGTH + cipher.doFinal(plain, out);
+    }
+
+    /**
+     * Decrypts a message written by {@link #encrypt(SecretKey, ByteBuffer, ByteBuffer)} - all of in.remaining().
+     *
+     * @return bytes written to out
+     * @throws javax.crypto.AEADBadTagException if the message was modified or the key is wrong
+     */
+    public int decrypt(SecretKey key, ByteBuffer in, ByteBuffer out) throws GeneralSecurityException {
+        if (in.remaining() < OVERHEAD) {
+            throw new IllegalArgumentException("message too short: " + in.remaining());
+        }
+        ThreadState state = states.get();
+        Cipher cipher = state.cipherFor(key);
+        in.get(state.iv);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, state.iv));
+        return cipher.doFinal(in, out);
+    }
+
+    public byte[] encrypt(SecretKey key, byte[] plain) throws GeneralSecurityException {
+        ByteBuffer out = ByteBuffer.allocate(plain.length + OVERHEAD);
+        encrypt(key, ByteBuffer.wrap(plain), out);
+        return out.array();
+    }
+
+    public byte[] decrypt(SecretKey key, byte[] message) throws GeneralSecurityException {
+        ByteBuffer out = ByteBuffer.allocate(Math.max(0, message.length - OVERHEAD));
+        decrypt(key, ByteBuffer.wrap(message), out);
+        return out.array();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return hits / lookups over all threads - 0 if nothing was looked up yet
+     */
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
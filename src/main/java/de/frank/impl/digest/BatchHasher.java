@@ -0,0 +1,340 @@
+package de.frank.impl.digest;
+
+import de.frank.impl.pool.ObjectPool;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Hashes many small records in one call - MessageDigest or HMAC - and writes the digests back to back into a
+ * preallocated output array: digest i at out[i * digestLength()].
+ * <p>
+ * Usage:
+ * <pre>{@code
+ *  BatchHasher sha256 = BatchHasher.digest("SHA-256");
+ *  byte[] out = new byte[records.length * sha256.digestLength()];
+ *  sha256.hash(records, out);
+ * }</pre>
+ * The MessageDigest/Mac instances are pooled and reused for every record of a batch - no per record getInstance(), no
+ * per record result array. Batches with at least {@code parallelMinBytes} of work (payload + 64 bytes per record for
+ * the final padding block) are split into ranges hashed on the ForkJoinPool, each range with its own instance.
+ * Instances of this class are thread safe.
+ */
+public final class BatchHasher {
+    /**
+     * ~1ms of SHA-256 on one core - below that forking costs more than it gains
+     */
+    public static final int DEFAULT_PARALLEL_MIN_BYTES = 512 * 1024;
+    private static final int RECORD_OVERHEAD_BYTES = 64;
+
+    private final ObjectPool<HashFunction> functions;
+    private final int digestLength;
+    private final ForkJoinPool pool;
+    private final long parallelMinBytes;
+
+    private BatchHasher(Supplier<HashFunction> factory, ForkJoinPool pool, long parallelMinBytes) {
+        this.functions = ObjectPool.create(ObjectPool.Strategy.STRIPED, factory, HashFunction::reset);
+        this.pool = Objects.requireNonNull(pool, "pool");
+        this.parallelMinBytes = parallelMinBytes;
+        //creates (and validates) the first instance eagerly
+        this.digestLength = functions.apply(HashFunction::length);
+    }
+
+    public static BatchHasher digest(String algorithm) {
+        return digest(algorithm, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_MIN_BYTES);
+    }
+
+    /**
+     * @param parallelMinBytes work from which a batch is hashed on the pool - Long.MAX_VALUE: always sequential
+     */
+    public static BatchHasher digest(String algorithm, ForkJoinPool pool, long parallelMinBytes) {
+        return new BatchHasher(() -> new DigestFunction(newMessageDigest(algorithm)), pool, parallelMinBytes);
+    }
+
+    public static BatchHasher hmac(String algorithm, byte[] key) {
+        return hmac(algorithm, key, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_MIN_BYTES);
+    }
+
+    /**
+     * @param parallelMinBytes work from which a batch is hashed on the pool - Long.MAX_VALUE: always sequential
+     */
+    public static BatchHasher hmac(String algorithm, byte[] key, ForkJoinPool pool, long parallelMinBytes) {
+        SecretKeySpec keySpec = new SecretKeySpec(key, algorithm); //copies the key
+        return new BatchHasher(() -> new MacFunction(newMac(algorithm, keySpec)), pool, parallelMinBytes);
+    }
+
+    public int digestLength() {
+        return digestLength;
+    }
+
+    /**
+     * Hashes complete arrays.
+     */
+    public void hash(byte[][] records, byte[] out) {
+        int[] offsets = new int[records.length];
+        int[] lengths = new int[records.length];
+        for (int i = 0; i < records.length; i++) {
+            lengths[i] = records[i].length;
+        }
+        hash(records, offsets, lengths, out);
+    }
+
+    /**
+     * Hashes record i = data[i][offsets[i] .. offsets[i] + lengths[i]) - the arrays may be the same backing array.
+     *
+     * @param out at least data.length * digestLength() bytes
+     */
+    public void hash(byte[][] data, int[] offsets, int[] lengths, byte[] out) {
+        int count = data.length;
+        if (offsets.length != count || lengths.length != count) {
+            throw new IllegalArgumentException("data, offsets and lengths differ in size: "
+                    + count + "/" + offsets.length + "/" + lengths.length);
+        }
+        checkOutput(count, out);
+        long work = (long) count * RECORD_OVERHEAD_BYTES;
+        for (int i = 0; i < count; i++) {
+            Objects.checkFromIndexSize(offsets[i], lengths[i], data[i].length);
+            work += lengths[i];
+        }
+        RangeHasher hasher = (f, from, to) -> {
+            for (int i = from; i < to; i++) {
+                f.update(data[i], offsets[i], lengths[i]);
+                f.finish(out, i * digestLength);
+            }
+        };
+        run(hasher, count, work);
+    }
+
+    /**
+     * Hashes length prefixed records: [int length][length bytes] repeated from position to limit. The length is read
+     * in the buffer's byte order. Heap and direct buffers are both hashed without copying them. The position of the
+     * buffer is not changed.
+     *
+     * @param out at least (number of records) * digestLength() bytes
+     * @return number of records hashed
+     */
+    public int hash(ByteBuffer lengthPrefixedRecords, byte[] out) {
+        ByteBuffer records = lengthPrefixedRecords.duplicate().order(lengthPrefixedRecords.order());
+        int first = records.position();
+        long work = 0;
+        int n = 0;
+        for (int pos = first; pos < records.limit(); n++) {
+            int len = recordLength(records, pos);
+            work += len + RECORD_OVERHEAD_BYTES;
+            pos += Integer.BYTES + len;
+        }
+        int count = n;
+        checkOutput(count, out);
+
+        if (!parallel(count, work)) {
+            sequential((f, from, to) -> hashRecords(f, records, first, count, out, 0), count);
+            return count;
+        }
+
+        //index the record starts so the ranges can be hashed independently
+        int[] starts = new int[count];
+        for (int i = 0, pos = first; i < count; i++) {
+            starts[i] = pos;
+            pos += Integer.BYTES + records.getInt(pos);
+        }
+        run((f, from, to) -> hashRecords(f, records, starts[from], to - from, out, from), count, work);
+        return count;
+    }
+
+    /**
+     * @param records only read (absolute), the digest is fed from a duplicate narrowed to each record
+     */
+    private void hashRecords(HashFunction f, ByteBuffer records, int pos, int count, byte[] out, int firstRecord) {
+        ByteBuffer view = records.duplicate();
+        for (int i = 0; i < count; i++) {
+            int len = records.getInt(pos);
+            int start = pos + Integer.BYTES;
+            pos = start + len;
+            view.limit(pos).position(start);
+            f.update(view);
+            f.finish(out, (firstRecord + i) * digestLength);
+        }
+    }
+
+    private static int recordLength(ByteBuffer records, int pos) {
+        if (records.limit() - pos < Integer.BYTES) {
+            throw new IllegalArgumentException("truncated length prefix at " + pos);
+        }
+        int len = records.getInt(pos);
+        if (len < 0 || len > records.limit() - pos - Integer.BYTES) {
+            throw new IllegalArgumentException("invalid record length " + len + " at " + pos);
+        }
+        return len;
+    }
+
+    private void checkOutput(int count, byte[] out) {
+        if ((long) count * digestLength > out.length) {
+            throw new IllegalArgumentException("out too small for " + count + " digests of " + digestLength
+                    + " bytes: " + out.length);
+        }
+    }
+
+    private boolean parallel(int count, long work) {
+        return count > 1 && work >= parallelMinBytes;
+    }
+
+    private void run(RangeHasher hasher, int count, long work) {
+        if (parallel(count, work)) {
+            int leafSize = Math.max(1, count / (pool.getParallelism() * 4));
+            pool.invoke(new RangeTask(functions, hasher, 0, count, leafSize));
+        } else {
+            sequential(hasher, count);
+        }
+    }
+
+    private void sequential(RangeHasher hasher, int count) {
+        HashFunction f = functions.borrow();
+        try {
+            hasher.hash(f, 0, count);
+        } finally {
+            functions.release(f);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeHasher {
+        void hash(HashFunction f, int from, int to);
+    }
+
+    @SuppressWarnings("serial") //never serialized
+    private static final class RangeTask extends RecursiveAction {
+        private final ObjectPool<HashFunction> functions;
+        private final RangeHasher hasher;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        RangeTask(ObjectPool<HashFunction> functions, RangeHasher hasher, int from, int to, int leafSize) {
+            this.functions = functions;
+            this.hasher = hasher;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                HashFunction f = functions.borrow();
+                try {
+                    hasher.hash(f, from, to);
+                } finally {
+                    functions.release(f);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeTask(functions, hasher, from, mid, leafSize),
+                        new RangeTask(functions, hasher, mid, to, leafSize));
+            }
+        }
+    }
+
+    private static MessageDigest newMessageDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("unsupported digest: " + algorithm, e);
+        }
+    }
+
+    private static Mac newMac(String algorithm, SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(algorithm);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("unsupported mac: " + algorithm, e);
+        }
+    }
+
+    /**
+     * The common part of MessageDigest and Mac - finish() writes the result into out and resets the state.
+     */
+    private interface HashFunction {
+        int length();
+
+        void update(byte[] data, int offset, int len);
+
+        void update(ByteBuffer data);
+
+        void finish(byte[] out, int offset);
+
+        void reset();
+    }
+
+    private record DigestFunction(MessageDigest digest) implements HashFunction {
+        @Override
+        public int length() {
+            return digest.getDigestLength();
+        }
+
+        @Override
+        public void update(byte[] data, int offset, int len) {
+            digest.update(data, offset, len);
+        }
+
+        @Override
+        public void update(ByteBuffer data) {
+            digest.update(data);
+        }
+
+        @Override
+        public void finish(byte[] out, int offset) {
+            try {
+                digest.digest(out, offset, digest.getDigestLength());
+            } catch (DigestException e) {
+                throw new IllegalStateException(e); //out size is checked upfront
+            }
+        }
+
+        @Override
+        public void reset() {
+            digest.reset();
+        }
+    }
+
+    private record MacFunction(Mac mac) implements HashFunction {
+        @Override
+        public int length() {
+            return mac.getMacLength();
+        }
+
+        @Override
+        public void update(byte[] data, int offset, int len) {
+            mac.update(data, offset, len);
+        }
+
+        @Override
+        public void update(ByteBuffer data) {
+            mac.update(data);
+        }
+
+        @Override
+        public void finish(byte[] out, int offset) {
+            try {
+                mac.doFinal(out, offset);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e); //out size is checked upfront
+            }
+        }
+
+        @Override
+        public void reset() {
+            mac.reset();
+        }
+    }
+}
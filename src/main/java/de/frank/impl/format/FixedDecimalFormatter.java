@@ -0,0 +1,374 @@
+package de.frank.impl.format;
+
+import java.math.BigInteger;
+
+/**
+ * Allocation free replacement for {@code new DecimalFormat("0.000")}: formats double (and float - widened to double,
+ * like DecimalFormat does) values with a fixed number of fraction digits straight into a StringBuilder or byte[].
+ * Immutable and thread safe - one shared instance instead of a ThreadLocal&lt;DecimalFormat&gt;.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ *  FixedDecimalFormatter PRICE = FixedDecimalFormatter.ofPattern("0.000");
+ *  PRICE.format(3.14159, sb);                  // "3.142"
+ *  int end = PRICE.format(3.14159, buf, pos);  // ASCII bytes
+ * }</pre>
+ * How: the shortest decimal that uniquely identifies the double (Schubfach - the algorithm behind Double.toString
+ * since JDK 19) is rounded HALF_EVEN to the scale. If the shortest digits end exactly on the rounding tie, the exact
+ * binary value decides: 0.0015 is stored as 0.00150000000000000003 and rounds to 0.002. All of this is long arithmetic
+ * (Math.multiplyHigh) on a 617 entry table of 126 bit powers of ten, computed once at class init.
+ * <p>
+ * So the reference is the shortest decimal, not the exact binary expansion: digits beyond the shortest ones are zeros
+ * (242.906 at scale 14 is "242.90600000000000", new BigDecimal(242.906) rounds to "...00001") - as with DecimalFormat.
+ * <p>
+ * Output is the same as DecimalFormat for ordinary values. It differs where DecimalFormat inherits quirks of the old
+ * FloatingDecimal conversion: some ties (DecimalFormat formats 0.0005 as "0.000", the value is above the tie) and the
+ * digits of values beyond 2^53, which have no fraction anyway (1e23: DecimalFormat "99999999999999990000000.000",
+ * here the shortest digits "100000000000000000000000.000").
+ * NaN and infinity are written as "NaN" and "∞" (UTF-8 in byte[]), negative values rounding to zero keep the sign
+ * ("-0.000") - both as DecimalFormat with Locale.ENGLISH symbols. No grouping, no locale.
+ */
+public final class FixedDecimalFormatter {
+    public static final int MAX_SCALE = 15;
+
+    private static final long[] POW10 = new long[19];
+    private static final byte[] NAN = {'N', 'a', 'N'};
+    private static final byte[] INFINITY = {(byte) 0xE2, (byte) 0x88, (byte) 0x9E}; //UTF-8 of '∞'
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final int scale;
+
+    public FixedDecimalFormatter(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("scale must be 0.." + MAX_SCALE + ": " + scale);
+        }
+        this.scale = scale;
+    }
+
+    /**
+     * @param pattern "0" or "0." followed by 1..MAX_SCALE zeros
+     */
+    public static FixedDecimalFormatter ofPattern(String pattern) {
+        if (!pattern.matches("0(\\.0+)?")) {
+            throw new IllegalArgumentException("only fixed scale patterns like \"0.000\" are supported: " + pattern);
+        }
+        int dot = pattern.indexOf('.');
+        return new FixedDecimalFormatter(dot < 0 ? 0 : pattern.length() - dot - 1);
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * @return upper bound of the bytes written by one {@link #format(double, byte[], int)} call
+     */
+    public int maxLength() {
+        return 1 + 309 + 1 + scale; //sign, integer digits of Double.MAX_VALUE, point, fraction
+    }
+
+    public String format(double value) {
+        return format(value, new StringBuilder(24)).toString();
+    }
+
+    public StringBuilder format(double value, StringBuilder sb) {
+        if (Double.isNaN(value)) {
+            return sb.append("NaN");
+        }
+        boolean negative = value < 0 || value == 0 && 1 / value < 0;
+        if (negative) {
+            sb.append('-');
+        }
+        if (Double.isInfinite(value)) {
+            return sb.append('∞');
+        }
+        double abs = Math.abs(value);
+        long unscaled = unscaled(abs);
+        if (unscaled >= 0) {
+            int len = length(unscaled, 0);
+            int end = sb.length() + len;
+            sb.setLength(end);
+            for (int i = end - 1, digit = 0; i >= end - len; i--, digit++) {
+                if (digit == scale && scale > 0) {
+                    sb.setCharAt(i, '.');
+                } else {
+                    sb.setCharAt(i, (char) ('0' + unscaled % 10));
+                    unscaled /= 10;
+                }
+            }
+        } else {
+            long digits = decimal(abs) >>> 2;
+            int zeros = exponent(abs) + scale;
+            int len = length(digits, zeros);
+            int end = sb.length() + len;
+            sb.setLength(end);
+            for (int i = end - 1, digit = 0; i >= end - len; i--, digit++) {
+                if (digit == scale && scale > 0) {
+                    sb.setCharAt(i, '.');
+                } else if (zeros > 0) {
+                    sb.setCharAt(i, '0');
+                    zeros--;
+                } else {
+                    sb.setCharAt(i, (char) ('0' + digits % 10));
+                    digits /= 10;
+                }
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Writes ASCII (UTF-8) bytes.
+     *
+     * @return position after the last byte written
+     * @throws IndexOutOfBoundsException if out is too small - {@link #maxLength()} is always enough
+     */
+    public int format(double value, byte[] out, int pos) {
+        if (Double.isNaN(value)) {
+            System.arraycopy(NAN, 0, out, pos, NAN.length);
+            return pos + NAN.length;
+        }
+        boolean negative = value < 0 || value == 0 && 1 / value < 0;
+        if (negative) {
+            out[pos++] = '-';
+        }
+        if (Double.isInfinite(value)) {
+            System.arraycopy(INFINITY, 0, out, pos, INFINITY.length);
+            return pos + INFINITY.length;
+        }
+        double abs = Math.abs(value);
+        long unscaled = unscaled(abs);
+        if (unscaled >= 0) {
+            int len = length(unscaled, 0);
+            int end = pos + len;
+            for (int i = end - 1, digit = 0; i >= pos; i--, digit++) {
+                if (digit == scale && scale > 0) {
+                    out[i] = '.';
+                } else {
+                    out[i] = (byte) ('0' + unscaled % 10);
+                    unscaled /= 10;
+                }
+            }
+            return end;
+        }
+        long digits = decimal(abs) >>> 2;
+        int zeros = exponent(abs) + scale;
+        int len = length(digits, zeros);
+        int end = pos + len;
+        for (int i = end - 1, digit = 0; i >= pos; i--, digit++) {
+            if (digit == scale && scale > 0) {
+                out[i] = '.';
+            } else if (zeros > 0) {
+                out[i] = '0';
+                zeros--;
+            } else {
+                out[i] = (byte) ('0' + digits % 10);
+                digits /= 10;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return chars of digits * 10^zeros as unscaled value: at least scale + 1 digits, plus the point
+     */
+    private int length(long digits, int zeros) {
+        int n = zeros + 1;
+        while (digits >= 10) {
+            digits /= 10;
+            n++;
+        }
+        n = Math.max(n, scale + 1);
+        return scale > 0 ? n + 1 : n;
+    }
+
+    /**
+     * @return abs * 10^scale rounded - or -1 if that does not fit into a long
+     */
+    private long unscaled(double abs) {
+        if (abs == 0) {
+            return 0;
+        }
+        long decimal = decimal(abs);
+        long f = decimal >>> 2;
+        int cmp = (int) decimal & 0x3;
+        int n = exponent(abs) + scale;
+        if (n >= 0) {
+            return n < POW10.length && f <= Long.MAX_VALUE / POW10[n] ? f * POW10[n] : -1;
+        }
+        if (-n >= POW10.length) {
+            return 0; //f < 10^18 -> below 0.1 units of the last digit
+        }
+        long p = POW10[-n];
+        long q = f / p;
+        long r = f - q * p;
+        long half = p >> 1;
+        if (r > half || r == half && (cmp == ABOVE || cmp == EXACT && (q & 1) != 0)) {
+            q++;
+        }
+        return q;
+    }
+
+    //---------------------------------------------------------------------------------------------------------------
+    // Shortest decimal of a positive finite double - Schubfach, R. Giulietti, "The Schubfach way to render doubles".
+    // Same structure and names as the JDK's jdk.internal.math.DoubleToDecimal, but returns the digits as long instead
+    // of chars.
+    //---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * cmp codes in the low 2 bits of {@link #decimal(double)}: the double relative to the returned decimal
+     */
+    private static final int EXACT = 0;
+    private static final int ABOVE = 1;
+    private static final int BELOW = 2;
+
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << (P - 1);
+    private static final long T_MASK = C_MIN - 1;
+    private static final int BQ_MASK = 0x7FF;
+    private static final long C_TINY = 3;
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+    private static final long[] G = powersOfTen();
+
+    /**
+     * g1/g0 pairs for k = K_MIN..K_MAX: with 10^-k = b 2^r and 2^125 &lt;= b &lt; 2^126, g = floor(b) + 1 =
+     * g1 2^63 + g0.
+     */
+    private static long[] powersOfTen() {
+        long[] g = new long[(K_MAX - K_MIN + 1) * 2];
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            int r = flog2pow10(-k) - 125;
+            BigInteger num = -k >= 0 ? BigInteger.TEN.pow(-k) : BigInteger.ONE;
+            BigInteger den = -k >= 0 ? BigInteger.ONE : BigInteger.TEN.pow(k);
+            if (r < 0) {
+                num = num.shiftLeft(-r);
+            } else {
+                den = den.shiftLeft(r);
+            }
+            BigInteger gk = num.divide(den).add(BigInteger.ONE);
+            if (gk.bitLength() != 126) {
+                throw new AssertionError("g(" + k + ") has " + gk.bitLength() + " bits");
+            }
+            g[(k - K_MIN) << 1] = gk.shiftRight(63).longValue();
+            g[(k - K_MIN) << 1 | 1] = gk.longValue() & MASK_63;
+        }
+        return g;
+    }
+
+    /**
+     * @return f &lt;&lt; 2 | cmp with abs ~ f 10^{@link #exponent(double)}, cmp one of EXACT, ABOVE, BELOW
+     */
+    static long decimal(double abs) {
+        long bits = Double.doubleToRawLongBits(abs);
+        long t = bits & T_MASK;
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            if (0 < mq & mq < P) {
+                long f = c >> mq;
+                if (f << mq == c) {
+                    return f << 2 | EXACT; //integer below 2^53
+                }
+            }
+            return toDecimal(-mq, c);
+        }
+        return t < C_TINY ? toDecimal(Q_MIN, 10 * t) : toDecimal(Q_MIN, t);
+    }
+
+    /**
+     * @return the decimal exponent of {@link #decimal(double)}
+     */
+    static int exponent(double abs) {
+        long bits = Double.doubleToRawLongBits(abs);
+        long t = bits & T_MASK;
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            if (0 < mq & mq < P && (c >> mq) << mq == c) {
+                return 0;
+            }
+            return k(-mq, c);
+        }
+        return t < C_TINY ? k(Q_MIN, 10 * t) - 1 : k(Q_MIN, t);
+    }
+
+    private static int k(int q, long c) {
+        return c != C_MIN | q == Q_MIN ? flog10pow2(q) : flog10threeQuartersPow2(q);
+    }
+
+    private static long toDecimal(int q, long c) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl = c != C_MIN | q == Q_MIN ? cb - 2 : cb - 1;
+        int k = k(q, c);
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = G[(k - K_MIN) << 1];
+        long g0 = G[(k - K_MIN) << 1 | 1];
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return withCmp(upin ? sp10 : tp10, vb);
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return withCmp(uin ? s : t, vb);
+        }
+        long cmp = vb - (s + t << 1);
+        return withCmp(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, vb);
+    }
+
+    /**
+     * vb is 4 v 10^-k rounded to odd - so it is exact or strictly between two multiples of 4 f.
+     */
+    private static long withCmp(long f, long vb) {
+        long diff = vb - (f << 2);
+        return f << 2 | (diff == 0 ? EXACT : diff > 0 ? ABOVE : BELOW);
+    }
+
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+}
@@ -1,5 +1,6 @@
 package de.frank.impl.jaxb;
 
+import de.frank.impl.pool.ObjectPool;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.*;
 import lombok.*;
@@ -21,7 +22,9 @@ public class CachedJaxbXmlMapper {
     /**
      * JaxBContext is heavyweight but thread safe and should be cached.
      * Marshaller and Un-marshaller are NOT thread safe, but still heavyweight.
-     * We therefore cache them safely with in a @{link ThreadLocal}
+     * We therefore pool them per carrier thread {@link ObjectPool.Strategy#CARRIER_THREAD_LOCAL}: each platform thread
+     * keeps its own idle instance (as the ThreadLocal did - scales with any number of request threads), virtual threads
+     * share the one of their carrier and overflow into a striped pool instead of creating one per virtual thread.
      */
     private static final ConcurrentHashMap<Class<?>, ScopedJAXB> SCOPED_JAXB_CONTEXTS = new ConcurrentHashMap<>();
 
@@ -51,11 +54,14 @@ public class CachedJaxbXmlMapper {
      * @param writer the target where to write the xml string to
      */
     public static void toXML(Object model, Writer writer) {
+        ObjectPool<Marshaller> marshallers = scopedJAXBFor(model.getClass()).getMarshallers();
+        Marshaller marshaller = marshallers.borrow();
         try {
-            Marshaller marshaller = cachedMarshallerFor(model.getClass());
             marshaller.marshal(model, writer);
         } catch (JAXBException e) {
             throw new UncheckedXMLException(e);
+        } finally {
+            marshallers.release(marshaller);
         }
     }
 
@@ -67,11 +73,14 @@ public class CachedJaxbXmlMapper {
      * @param out   the target where to write the xml bytes to
      */
     public static void toXML(Object model, OutputStream out) {
+        ObjectPool<Marshaller> marshallers = scopedJAXBFor(model.getClass()).getMarshallers();
+        Marshaller marshaller = marshallers.borrow();
         try {
-            Marshaller marshaller = cachedMarshallerFor(model.getClass());
             marshaller.marshal(model, out);
         } catch (JAXBException e) {
             throw new UncheckedXMLException(e);
+        } finally {
+            marshallers.release(marshaller);
         }
     }
 
@@ -97,10 +106,14 @@ public class CachedJaxbXmlMapper {
      */
     @SuppressWarnings("unchecked")
     public static <T> T fromXML(Reader reader, Class<T> type) {
+        ObjectPool<Unmarshaller> unmarshallers = scopedJAXBFor(type).getUnmarshallers();
+        Unmarshaller unmarshaller = unmarshallers.borrow();
         try {
-            return (T) cachedUnmarshallerFor(type).unmarshal(reader);
+            return (T) unmarshaller.unmarshal(reader);
         } catch (JAXBException e) {
             throw new UncheckedXMLException(e);
+        } finally {
+            unmarshallers.release(unmarshaller);
         }
     }
 
@@ -114,10 +127,14 @@ public class CachedJaxbXmlMapper {
      */
     @SuppressWarnings("unchecked")
     public static <T> T fromXML(InputStream inputStream, Class<T> type) {
+        ObjectPool<Unmarshaller> unmarshallers = scopedJAXBFor(type).getUnmarshallers();
+        Unmarshaller unmarshaller = unmarshallers.borrow();
         try {
-            return (T) cachedUnmarshallerFor(type).unmarshal(inputStream);
+            return (T) unmarshaller.unmarshal(inputStream);
         } catch (JAXBException e) {
             throw new UncheckedXMLException(e);
+        } finally {
+            unmarshallers.release(unmarshaller);
         }
     }
 
@@ -161,39 +178,25 @@ public class CachedJaxbXmlMapper {
         }
     }
 
-    private static Marshaller cachedMarshallerFor(Class<?> type) {
-        return SCOPED_JAXB_CONTEXTS.computeIfAbsent(type, CachedJaxbXmlMapper::newScopedJAXB).getMarshaller();
-    }
-
-    private static Unmarshaller cachedUnmarshallerFor(Class<?> type) {
-        return SCOPED_JAXB_CONTEXTS.computeIfAbsent(type, CachedJaxbXmlMapper::newScopedJAXB).getUnmarshaller();
+    private static ScopedJAXB scopedJAXBFor(Class<?> type) {
+        return SCOPED_JAXB_CONTEXTS.computeIfAbsent(type, CachedJaxbXmlMapper::newScopedJAXB);
     }
 
     private static ScopedJAXB newScopedJAXB(Class<?> type) {
         JAXBContext jaxbContext = newJaxbContextFor(type);
-        ThreadLocal<Marshaller> marshaller = ThreadLocal.withInitial(() -> newMarshaller(jaxbContext));
-        ThreadLocal<Unmarshaller> unmarshaller = ThreadLocal.withInitial(() -> newUnmarshaller(jaxbContext, type));
-        return new ScopedJAXB(jaxbContext, marshaller, unmarshaller);
+        ObjectPool<Marshaller> marshallers = ObjectPool.create(ObjectPool.Strategy.CARRIER_THREAD_LOCAL,
+                () -> newMarshaller(jaxbContext));
+        ObjectPool<Unmarshaller> unmarshallers = ObjectPool.create(ObjectPool.Strategy.CARRIER_THREAD_LOCAL,
+                () -> newUnmarshaller(jaxbContext, type));
+        return new ScopedJAXB(jaxbContext, marshallers, unmarshallers);
     }
 
-    /*
-     *java:S5164:"ThreadLocal variables cleaned up" -> not in this case, we want them to life the entire app lifetime
-     */
     @Value
     @AllArgsConstructor
-    @SuppressWarnings("java:S5164")
     private static class ScopedJAXB {
         JAXBContext jaxbContext;
-        ThreadLocal<Marshaller> marshaller;
-        ThreadLocal<Unmarshaller> unmarshaller;
-
-        public Marshaller getMarshaller() {
-            return marshaller.get();
-        }
-
-        public Unmarshaller getUnmarshaller() {
-            return unmarshaller.get();
-        }
+        ObjectPool<Marshaller> marshallers;
+        ObjectPool<Unmarshaller> unmarshallers;
     }
 
 }
@@ -0,0 +1,46 @@
+package de.frank.impl.pool;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Factory, reset hook and creation counter shared by the pool strategies.
+ */
+abstract class AbstractObjectPool<T> implements ObjectPool<T> {
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> resetOnReturn;
+    private final LongAdder created = new LongAdder();
+
+    AbstractObjectPool(Supplier<? extends T> factory, Consumer<? super T> resetOnReturn) {
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.resetOnReturn = Objects.requireNonNull(resetOnReturn, "resetOnReturn");
+    }
+
+    T newObject() {
+        T object = Objects.requireNonNull(factory.get(), "factory returned null");
+        created.increment();
+        return object;
+    }
+
+    /**
+     * Runs the reset hook - an object whose reset fails must not be pooled again. The exception is not propagated:
+     * release() usually runs in a finally block and would mask the exception of the borrower.
+     *
+     * @return false if the reset hook threw - drop the object
+     */
+    boolean reset(T object) {
+        try {
+            resetOnReturn.accept(object);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long createdCount() {
+        return created.sum();
+    }
+}
@@ -0,0 +1,79 @@
+package de.frank.impl.pool;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link ObjectPool.Strategy#CARRIER_THREAD_LOCAL}: one idle object per carrier thread in front of a striped pool.
+ * <p>
+ * A virtual thread may be unmounted while it uses an object and another virtual thread may run on the same carrier
+ * meanwhile - so the carrier slot is not owned by anybody: borrow() takes the object out of it with getAndSet(null),
+ * release() puts it back with a CAS (into the slot of the carrier the thread runs on by then). A second borrower on
+ * the same carrier finds the slot empty and falls through to the striped overflow pool.
+ * <p>
+ * jdk.internal.misc.CarrierThreadLocal is JDK internal. It is created reflectively and needs
+ * --add-exports java.base/jdk.internal.misc=ALL-UNNAMED, else platform threads use a plain ThreadLocal slot and virtual
+ * threads go to the overflow pool directly. For platform threads both are the same thing.
+ */
+final class CarrierThreadLocalObjectPool<T> implements ObjectPool<T> {
+
+    private static final boolean CARRIER_THREAD_LOCAL_AVAILABLE = newCarrierThreadLocal() != null;
+
+    private final ThreadLocal<AtomicReference<T>> slots;
+    private final StripedObjectPool<T> overflow;
+
+    CarrierThreadLocalObjectPool(StripedObjectPool<T> overflow) {
+        this.overflow = overflow;
+        ThreadLocal<AtomicReference<T>> carrierSlots = newCarrierThreadLocal();
+        this.slots = carrierSlots != null ? carrierSlots : new ThreadLocal<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> ThreadLocal<V> newCarrierThreadLocal() {
+        try {
+            return (ThreadLocal<V>) Class.forName("jdk.internal.misc.CarrierThreadLocal").getConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null; //not exported to us
+        }
+    }
+
+    @Override
+    public T borrow() {
+        AtomicReference<T> slot = slot();
+        if (slot != null) {
+            T object = slot.getAndSet(null);
+            if (object != null) {
+                return object;
+            }
+        }
+        return overflow.borrow();
+    }
+
+    @Override
+    public void release(T object) {
+        if (!overflow.reset(object)) {
+            return;
+        }
+        AtomicReference<T> slot = slot();
+        if (slot == null || !slot.compareAndSet(null, object)) {
+            overflow.offer(object);
+        }
+    }
+
+    private AtomicReference<T> slot() {
+        if (!CARRIER_THREAD_LOCAL_AVAILABLE && Thread.currentThread().isVirtual()) {
+            return null;
+        }
+        AtomicReference<T> slot = slots.get();
+        if (slot == null) {
+            //no yield point between get() and set() - the thread cannot be unmounted in between
+            slot = new AtomicReference<>();
+            slots.set(slot);
+        }
+        return slot;
+    }
+
+    @Override
+    public long createdCount() {
+        return overflow.createdCount();
+    }
+}
@@ -0,0 +1,91 @@
+package de.frank.impl.pool;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Reuse of expensive, non thread safe helper objects (MessageDigest, Cipher, Marshaller, DecimalFormat, ...) - one API
+ * over several strategies, see {@link Strategy}.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ *  ObjectPool<MessageDigest> digests = ObjectPool.create(Strategy.STRIPED, () -> newDigest("SHA-256"), MessageDigest::reset);
+ *  byte[] hash = digests.apply(d -> d.digest(data));
+ * }</pre>
+ * or borrow()/release() in a try/finally. The reset hook runs on every release() - an object whose reset throws is
+ * dropped instead of pooled (release() does not rethrow). Objects are never handed to two borrowers at the same time.
+ * A pool never blocks: if no idle object is available, a new one is created - the strategies differ in how many idle
+ * objects they keep and where.
+ *
+ * @param <T> pooled type
+ */
+public interface ObjectPool<T> {
+
+    enum Strategy {
+        /**
+         * One idle object per thread - the classic ThreadLocal.withInitial cache. Fastest for a fixed set of platform
+         * threads, but every virtual thread creates its own object (and drops it when it ends), and pooled platform
+         * threads keep theirs forever.
+         */
+        THREAD_LOCAL,
+        /**
+         * A fixed number of slots shared by all threads, claimed with a CAS starting at a slot derived from the thread
+         * id. Lock free, bounded memory, independent of the number of (virtual) threads.
+         */
+        STRIPED,
+        /**
+         * One idle object per carrier (platform) thread plus a {@link #STRIPED} overflow - reuse across all virtual
+         * threads scheduled on a carrier. Requires --add-exports java.base/jdk.internal.misc=ALL-UNNAMED - without it
+         * virtual threads use the overflow pool only.
+         */
+        CARRIER_THREAD_LOCAL
+    }
+
+    static <T> ObjectPool<T> create(Strategy strategy, Supplier<? extends T> factory) {
+        return create(strategy, factory, o -> {
+        });
+    }
+
+    static <T> ObjectPool<T> create(Strategy strategy, Supplier<? extends T> factory,
+                                    Consumer<? super T> resetOnReturn) {
+        return create(strategy, factory, resetOnReturn, StripedObjectPool.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity max number of idle objects of the {@link Strategy#STRIPED} pool (or the striped overflow)
+     */
+    static <T> ObjectPool<T> create(Strategy strategy, Supplier<? extends T> factory,
+                                    Consumer<? super T> resetOnReturn, int capacity) {
+        return switch (strategy) {
+            case THREAD_LOCAL -> new ThreadLocalObjectPool<>(factory, resetOnReturn);
+            case STRIPED -> new StripedObjectPool<>(factory, resetOnReturn, capacity);
+            case CARRIER_THREAD_LOCAL -> new CarrierThreadLocalObjectPool<>(
+                    new StripedObjectPool<>(factory, resetOnReturn, capacity));
+        };
+    }
+
+    /**
+     * @return an idle object or a new one - must be handed back with {@link #release(Object)}
+     */
+    T borrow();
+
+    /**
+     * Resets the object and makes it available for the next borrower (or drops it if the pool is full).
+     */
+    void release(T object);
+
+    default <R> R apply(Function<? super T, ? extends R> action) {
+        T object = borrow();
+        try {
+            return action.apply(object);
+        } finally {
+            release(object);
+        }
+    }
+
+    /**
+     * @return number of objects the factory created so far - the cost of misses
+     */
+    long createdCount();
+}
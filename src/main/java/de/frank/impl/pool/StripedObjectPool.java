@@ -0,0 +1,67 @@
+package de.frank.impl.pool;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link ObjectPool.Strategy#STRIPED}: a fixed array of slots, each holding at most one idle object.
+ * <p>
+ * borrow() takes an object out of a slot with a CAS, release() puts it into an empty one. Both start at a slot derived
+ * from the thread id, so threads mostly touch "their" slot and the CAS rarely fails - no locks, no blocking, no thread
+ * affinity. If all slots are empty a new object is created, if all are full the released object is dropped.
+ */
+final class StripedObjectPool<T> extends AbstractObjectPool<T> {
+    static final int DEFAULT_CAPACITY = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    StripedObjectPool(Supplier<? extends T> factory, Consumer<? super T> resetOnReturn, int capacity) {
+        super(factory, resetOnReturn);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1; //next power of 2
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    @Override
+    public T borrow() {
+        int start = probe();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            T object = slots.get(slot);
+            if (object != null && slots.compareAndSet(slot, object, null)) {
+                return object;
+            }
+        }
+        return newObject();
+    }
+
+    @Override
+    public void release(T object) {
+        if (reset(object)) {
+            offer(object);
+        }
+    }
+
+    /**
+     * Pools an already reset object.
+     */
+    void offer(T object) {
+        int start = probe();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, object)) {
+                return;
+            }
+        }
+        //full - drop it
+    }
+
+    private static int probe() {
+        return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
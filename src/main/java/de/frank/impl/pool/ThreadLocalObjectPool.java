@@ -0,0 +1,45 @@
+package de.frank.impl.pool;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link ObjectPool.Strategy#THREAD_LOCAL}: one idle object per thread.
+ * <p>
+ * Unlike a plain ThreadLocal.withInitial cache a nested borrow() in the same thread gets its own object instead of the
+ * one already in use.
+ */
+final class ThreadLocalObjectPool<T> extends AbstractObjectPool<T> {
+
+    private final ThreadLocal<Holder<T>> holders = ThreadLocal.withInitial(Holder::new);
+
+    private static final class Holder<T> {
+        T idle;
+    }
+
+    ThreadLocalObjectPool(Supplier<? extends T> factory, Consumer<? super T> resetOnReturn) {
+        super(factory, resetOnReturn);
+    }
+
+    @Override
+    public T borrow() {
+        Holder<T> holder = holders.get();
+        T object = holder.idle;
+        if (object == null) {
+            return newObject();
+        }
+        holder.idle = null;
+        return object;
+    }
+
+    @Override
+    public void release(T object) {
+        if (!reset(object)) {
+            return;
+        }
+        Holder<T> holder = holders.get();
+        if (holder.idle == null) {
+            holder.idle = object;
+        }
+    }
+}
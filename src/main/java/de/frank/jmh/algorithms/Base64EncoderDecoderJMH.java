@@ -5,8 +5,20 @@ import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
 import org.springframework.util.Base64Utils;
 
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.Instant;
@@ -53,6 +65,15 @@ import java.util.concurrent.TimeUnit;
  * sunMisc_encode_New                 30     599.063 ±     7.482  ops/s
  * sunMisc_encode_Shared              30     589.989 ±    11.087  ops/s
  *
+ * ============================
+ * Large payloads (attachments) 32B - 16MB - see gc.alloc.rate.norm (B/op) column
+ * ============================
+ * java_util_Base64_*_intoArray   # java.util.Base64 into a caller provided array - JDK has AVX2/AVX-512 intrinsics for the
+ *                                # encode/decode block loops -> the baseline to beat. ZERO-Allocation
+ * codec_scalar_*                 # Base64Codec ByteBuffer -> ByteBuffer, table lookups per char. ZERO-Allocation
+ * codec_vector_*                 # Base64Codec with the Vector API (jdk.incubator.vector) for >= 48 byte blocks. ZERO-Allocation
+ * codec_vector_channel_encode    # streaming: Base64Channel in front of a WritableByteChannel, reused 64k buffer
+ *                                # regardless of the payload size (instead of payload * 4/3 for encodeToString)
  */
 
 /**
@@ -61,7 +82,7 @@ import java.util.concurrent.TimeUnit;
  */
 @Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
 @Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
-@Fork(3)
+@Fork(value = 3, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
 @BenchmarkMode({Mode.Throughput})
 @OutputTimeUnit(TimeUnit.SECONDS)
 @State(Scope.Benchmark) // Important to be Scope.Benchmark
@@ -73,8 +94,35 @@ public class Base64EncoderDecoderJMH {
 
         public static final SecureRandom RANDOM = getSecureRandom();
 
-        public byte[] rawData = newRandomByteArray(32);
-        public String base64 = Base64.getEncoder().encodeToString(rawData);
+        @Param({"32", "1024", "65536", "1048576", "16777216"})
+        public int size;
+
+        public byte[] rawData;
+        public String base64;
+        //zero allocation variants
+        public byte[] base64Bytes;
+        public byte[] rawOut;
+        public byte[] base64Out;
+        public ByteBuffer rawBuffer;
+        public ByteBuffer base64Buffer;
+        public ByteBuffer rawBufferOut;
+        public ByteBuffer base64BufferOut;
+        public ByteBuffer channelBuffer;
+
+        @Setup
+        public void setup() {
+            rawData = newRandomByteArray(size);
+            base64 = Base64.getEncoder().encodeToString(rawData);
+            base64Bytes = base64.getBytes(StandardCharsets.US_ASCII);
+            rawOut = new byte[size];
+            base64Out = new byte[base64Bytes.length];
+            rawBuffer = ByteBuffer.allocateDirect(size).put(rawData).flip();
+            base64Buffer = ByteBuffer.allocateDirect(base64Bytes.length).put(base64Bytes).flip();
+            rawBufferOut = ByteBuffer.allocateDirect(size);
+            base64BufferOut = ByteBuffer.allocateDirect(base64Bytes.length);
+            channelBuffer = ByteBuffer.allocate(Base64Channel.DEFAULT_BUFFER_SIZE);
+            verifyCodecs(this);
+        }
 
 
         private static byte[] newRandomByteArray(int i) {
@@ -132,5 +180,441 @@ public class Base64EncoderDecoderJMH {
         return org.apache.commons.codec.binary.Base64.decodeBase64(state.base64);
     }
 
+    @Benchmark
+    public byte[] java_util_Base64_encode_intoArray(MyState state) {
+        Base64.getEncoder().encode(state.rawData, state.base64Out);
+        return state.base64Out;
+    }
+
+    @Benchmark
+    public byte[] java_util_Base64_decode_intoArray(MyState state) {
+        Base64.getDecoder().decode(state.base64Bytes, state.rawOut);
+        return state.rawOut;
+    }
+
+    @Benchmark
+    public ByteBuffer codec_scalar_encode(MyState state) {
+        return encode(Base64Codec.SCALAR, state.rawBuffer, state.base64BufferOut);
+    }
+
+    @Benchmark
+    public ByteBuffer codec_scalar_decode(MyState state) {
+        return decode(Base64Codec.SCALAR, state.base64Buffer, state.rawBufferOut);
+    }
+
+    @Benchmark
+    public ByteBuffer codec_vector_encode(MyState state) {
+        return encode(Base64Codec.VECTOR, state.rawBuffer, state.base64BufferOut);
+    }
+
+    @Benchmark
+    public ByteBuffer codec_vector_decode(MyState state) {
+        return decode(Base64Codec.VECTOR, state.base64Buffer, state.rawBufferOut);
+    }
+
+    @Benchmark
+    public long codec_vector_channel_encode(MyState state) throws java.io.IOException {
+        NullChannel sink = new NullChannel();
+        try (Base64Channel channel = Base64Channel.encoding(sink, Base64Codec.VECTOR, state.channelBuffer)) {
+            channel.write(state.rawBuffer.clear());
+        }
+        return sink.written;
+    }
+
+    private static ByteBuffer encode(Base64Codec codec, ByteBuffer src, ByteBuffer dst) {
+        codec.encode(src.clear(), dst.clear(), true);
+        return dst;
+    }
+
+    private static ByteBuffer decode(Base64Codec codec, ByteBuffer src, ByteBuffer dst) {
+        codec.decode(src.clear(), dst.clear(), true);
+        return dst;
+    }
+
+    private static void verifyCodecs(MyState state) {
+        for (Base64Codec codec : new Base64Codec[]{Base64Codec.SCALAR, Base64Codec.VECTOR}) {
+            ByteBuffer encoded = encode(codec, state.rawBuffer, state.base64BufferOut).flip();
+            if (!encoded.equals(ByteBuffer.wrap(state.base64Bytes))) {
+                throw new IllegalStateException(codec + " encode broken");
+            }
+            ByteBuffer decoded = decode(codec, state.base64Buffer, state.rawBufferOut).flip();
+            if (!decoded.equals(ByteBuffer.wrap(state.rawData))) {
+                throw new IllegalStateException(codec + " decode broken");
+            }
+        }
+    }
+
+    /**
+     * Base64 (RFC 4648 basic alphabet, with padding, no line breaks) from ByteBuffer to ByteBuffer - heap or direct,
+     * no allocation.
+     * <p>
+     * Both methods consume src and fill dst as far as possible and advance both positions - like a CharsetEncoder:
+     * <ul>
+     * <li>endOfInput == false: only complete groups (3 bytes / 4 chars) are consumed, the rest stays in src</li>
+     * <li>endOfInput == true: the final partial group is padded (encode) / padding is resolved (decode)</li>
+     * </ul>
+     * The vector path (Vector API, preferred species) handles blocks of at least 48 bytes. Its loads and stores are full
+     * vector width: it reads (but never consumes) up to a vector's width past the processed bytes, and may write junk
+     * past dst's position (within its limit) that later iterations or the scalar tail overwrite or leave beyond the
+     * final position.
+     * <p>
+     * Encode: 3 bytes of every 4 lanes are rearranged to [b1,b0,b2,b1], the four 6-bit indices are cut out with
+     * per-16bit-lane shifts (W. Mula / D. Lemire) and mapped to ascii with compare+blend instead of a 64 entry table.<br>
+     * Decode: validate and map ascii ranges with compare+blend, merge 4x6 bits per int lane with shifts, rearrange to
+     * 3 big-endian bytes per int lane. Any invalid char (including '=' padding) ends the vector loop - the scalar code
+     * then handles padding or reports the error.
+     */
+    public static final class Base64Codec {
+        public static final Base64Codec SCALAR = new Base64Codec(false);
+        public static final Base64Codec VECTOR = new Base64Codec(true);
+
+        private static final byte[] ENCODE = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+                .getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] DECODE = new byte[256];
+        private static final byte PAD = '=';
+
+        private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+        private static final int VLEN = SPECIES.length();
+        private static final int VECTOR_MIN_BYTES = 48;
+        private static final VectorShuffle<Byte> ENCODE_SHUFFLE;
+        private static final VectorShuffle<Byte> DECODE_SHUFFLE;
+        private static final ShortVector ENCODE_SHR; //mulhi_epu16(x, 0x04000040)
+        private static final ShortVector ENCODE_SHL; //mullo_epi16(x, 0x01000010)
+
+        static {
+            java.util.Arrays.fill(DECODE, (byte) -1);
+            for (int i = 0; i < ENCODE.length; i++) {
+                DECODE[ENCODE[i]] = (byte) i;
+            }
+            int[] encodeShuffle = new int[VLEN];
+            int[] decodeShuffle = new int[VLEN];
+            short[] shr = new short[VLEN / 2];
+            short[] shl = new short[VLEN / 2];
+            for (int quad = 0; quad < VLEN / 4; quad++) {
+                //encode: 3 input bytes per 4 output lanes -> [b1, b0, b2, b1]
+                encodeShuffle[quad * 4] = quad * 3 + 1;
+                encodeShuffle[quad * 4 + 1] = quad * 3;
+                encodeShuffle[quad * 4 + 2] = quad * 3 + 2;
+                encodeShuffle[quad * 4 + 3] = quad * 3 + 1;
+                //decode: 24 bit little endian int lane -> 3 big endian bytes, packed to the front
+                decodeShuffle[quad * 3] = quad * 4 + 2;
+                decodeShuffle[quad * 3 + 1] = quad * 4 + 1;
+                decodeShuffle[quad * 3 + 2] = quad * 4;
+            }
+            for (int i = 0; i < VLEN / 2; i++) {
+                shr[i] = (short) (i % 2 == 0 ? 10 : 6);
+                shl[i] = (short) (i % 2 == 0 ? 4 : 8);
+            }
+            ENCODE_SHUFFLE = VectorShuffle.fromArray(SPECIES, encodeShuffle, 0);
+            DECODE_SHUFFLE = VectorShuffle.fromArray(SPECIES, decodeShuffle, 0);
+            ENCODE_SHR = ShortVector.fromArray(ShortVector.SPECIES_PREFERRED, shr, 0);
+            ENCODE_SHL = ShortVector.fromArray(ShortVector.SPECIES_PREFERRED, shl, 0);
+        }
+
+        private final boolean vectorized;
+
+        private Base64Codec(boolean vectorized) {
+            this.vectorized = vectorized;
+        }
+
+        public static int encodedLength(int bytes) {
+            return (bytes + 2) / 3 * 4;
+        }
+
+        public void encode(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+            int sp = src.position();
+            int dp = dst.position();
+            int groups = Math.min(src.remaining() / 3, dst.remaining() / 4);
+            int sEnd = sp + groups * 3;
+
+            if (vectorized && groups * 3 >= VECTOR_MIN_BYTES) {
+                MemorySegment s = MemorySegment.ofBuffer(src);
+                MemorySegment d = MemorySegment.ofBuffer(dst);
+                long sOff = 0;
+                long dOff = 0;
+                long sLen = s.byteSize();
+                long dLen = d.byteSize();
+                int in = VLEN / 4 * 3;
+                while (sp + sOff + in <= sEnd && sOff + VLEN <= sLen && dOff + VLEN <= dLen) {
+                    IntVector bytes = ByteVector.fromMemorySegment(SPECIES, s, sOff, ByteOrder.LITTLE_ENDIAN)
+                            .rearrange(ENCODE_SHUFFLE)
+                            .reinterpretAsInts();
+                    ShortVector hi = bytes.lanewise(VectorOperators.AND, 0x0fc0fc00).reinterpretAsShorts()
+                            .lanewise(VectorOperators.LSHR, ENCODE_SHR);
+                    ShortVector lo = bytes.lanewise(VectorOperators.AND, 0x003f03f0).reinterpretAsShorts()
+                            .lanewise(VectorOperators.LSHL, ENCODE_SHL);
+                    toAscii(hi.or(lo).reinterpretAsBytes()).intoMemorySegment(d, dOff, ByteOrder.LITTLE_ENDIAN);
+                    sOff += in;
+                    dOff += VLEN;
+                }
+                sp += (int) sOff;
+                dp += (int) dOff;
+            }
+
+            for (; sp < sEnd; sp += 3, dp += 4) {
+                int bits = (src.get(sp) & 0xFF) << 16 | (src.get(sp + 1) & 0xFF) << 8 | (src.get(sp + 2) & 0xFF);
+                dst.put(dp, ENCODE[bits >>> 18]);
+                dst.put(dp + 1, ENCODE[(bits >>> 12) & 0x3F]);
+                dst.put(dp + 2, ENCODE[(bits >>> 6) & 0x3F]);
+                dst.put(dp + 3, ENCODE[bits & 0x3F]);
+            }
+
+            int rest = src.limit() - sp;
+            if (endOfInput && rest > 0 && rest < 3 && dst.limit() - dp >= 4) {
+                int b0 = src.get(sp) & 0xFF;
+                int b1 = rest == 2 ? src.get(sp + 1) & 0xFF : 0;
+                dst.put(dp, ENCODE[b0 >>> 2]);
+                dst.put(dp + 1, ENCODE[(b0 & 0x03) << 4 | b1 >>> 4]);
+                dst.put(dp + 2, rest == 2 ? ENCODE[(b1 & 0x0F) << 2] : PAD);
+                dst.put(dp + 3, PAD);
+                sp += rest;
+                dp += 4;
+            }
+            src.position(sp);
+            dst.position(dp);
+        }
+
+        /**
+         * 6 bit index -> base64 alphabet: A-Z +65, a-z +71, 0-9 -4, '+' -19, '/' -16
+         */
+        private static ByteVector toAscii(ByteVector idx) {
+            ByteVector offset = ByteVector.broadcast(SPECIES, (byte) 65)
+                    .blend((byte) 71, idx.compare(VectorOperators.GE, (byte) 26))
+                    .blend((byte) -4, idx.compare(VectorOperators.GE, (byte) 52))
+                    .blend((byte) -19, idx.compare(VectorOperators.EQ, (byte) 62))
+                    .blend((byte) -16, idx.compare(VectorOperators.EQ, (byte) 63));
+            return idx.add(offset);
+        }
+
+        public void decode(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+            int sp = src.position();
+            int dp = dst.position();
+            int sl = src.limit();
+            int dl = dst.limit();
+
+            if (vectorized && sl - sp >= VECTOR_MIN_BYTES) {
+                MemorySegment s = MemorySegment.ofBuffer(src);
+                MemorySegment d = MemorySegment.ofBuffer(dst);
+                long sOff = 0;
+                long dOff = 0;
+                long sLen = s.byteSize();
+                long dLen = d.byteSize();
+                int out = VLEN / 4 * 3;
+                while (sOff + VLEN <= sLen && dOff + VLEN <= dLen) {
+                    ByteVector ascii = ByteVector.fromMemorySegment(SPECIES, s, sOff, ByteOrder.LITTLE_ENDIAN);
+                    VectorMask<Byte> upper = ascii.compare(VectorOperators.GE, (byte) 'A').and(ascii.compare(VectorOperators.LE, (byte) 'Z'));
+                    VectorMask<Byte> lower = ascii.compare(VectorOperators.GE, (byte) 'a').and(ascii.compare(VectorOperators.LE, (byte) 'z'));
+                    VectorMask<Byte> digit = ascii.compare(VectorOperators.GE, (byte) '0').and(ascii.compare(VectorOperators.LE, (byte) '9'));
+                    VectorMask<Byte> plus = ascii.compare(VectorOperators.EQ, (byte) '+');
+                    VectorMask<Byte> slash = ascii.compare(VectorOperators.EQ, (byte) '/');
+                    if (!upper.or(lower).or(digit).or(plus).or(slash).allTrue()) {
+                        break; //padding or invalid - scalar code decides
+                    }
+                    ByteVector values = ascii.add(ByteVector.zero(SPECIES)
+                            .blend((byte) -65, upper)
+                            .blend((byte) -71, lower)
+                            .blend((byte) 4, digit)
+                            .blend((byte) 19, plus)
+                            .blend((byte) 16, slash));
+                    //[a, b] per short lane -> a << 6 | b
+                    ShortVector ab = values.reinterpretAsShorts();
+                    ab = ab.and((short) 0xFF).lanewise(VectorOperators.LSHL, 6).or(ab.lanewise(VectorOperators.LSHR, 8));
+                    //[ab, cd] per int lane -> ab << 12 | cd
+                    IntVector abcd = ab.reinterpretAsInts();
+                    abcd = abcd.and(0xFFFF).lanewise(VectorOperators.LSHL, 12).or(abcd.lanewise(VectorOperators.LSHR, 16));
+                    abcd.reinterpretAsBytes()
+                            .rearrange(DECODE_SHUFFLE)
+                            .intoMemorySegment(d, dOff, ByteOrder.LITTLE_ENDIAN);
+                    sOff += VLEN;
+                    dOff += out;
+                }
+                sp += (int) sOff;
+                dp += (int) dOff;
+            }
+
+            while (sl - sp >= 4 && dl - dp >= 3) {
+                int c0 = DECODE[src.get(sp) & 0xFF];
+                int c1 = DECODE[src.get(sp + 1) & 0xFF];
+                int c2 = DECODE[src.get(sp + 2) & 0xFF];
+                int c3 = DECODE[src.get(sp + 3) & 0xFF];
+                if ((c0 | c1 | c2 | c3) < 0) {
+                    break;
+                }
+                int bits = c0 << 18 | c1 << 12 | c2 << 6 | c3;
+                dst.put(dp, (byte) (bits >>> 16));
+                dst.put(dp + 1, (byte) (bits >>> 8));
+                dst.put(dp + 2, (byte) bits);
+                sp += 4;
+                dp += 3;
+            }
+
+            int rest = sl - sp;
+            if (endOfInput && rest == 4 && src.get(sp + 3) == PAD) {
+                rest = src.get(sp + 2) == PAD ? 2 : 3; //padded final group
+            } else if (rest >= 4 && dl - dp >= 3) {
+                throw illegal(src, sp); //a complete group with non alphabet chars
+            }
+            if (endOfInput && rest > 0 && rest < 4) {
+                if (rest == 1) {
+                    throw new IllegalArgumentException("Last unit does not have enough valid bits");
+                }
+                int c0 = DECODE[src.get(sp) & 0xFF];
+                int c1 = DECODE[src.get(sp + 1) & 0xFF];
+                int c2 = rest == 3 ? DECODE[src.get(sp + 2) & 0xFF] : 0;
+                if ((c0 | c1 | c2) < 0) {
+                    throw illegal(src, sp);
+                }
+                int bytes = rest - 1;
+                if (dl - dp >= bytes) {
+                    int bits = c0 << 18 | c1 << 12 | c2 << 6;
+                    dst.put(dp, (byte) (bits >>> 16));
+                    if (bytes == 2) {
+                        dst.put(dp + 1, (byte) (bits >>> 8));
+                    }
+                    dp += bytes;
+                    sp = sl;
+                }
+            }
+            src.position(sp);
+            dst.position(dp);
+        }
+
+        private static IllegalArgumentException illegal(ByteBuffer src, int groupStart) {
+            for (int i = groupStart; i < src.limit(); i++) {
+                if (DECODE[src.get(i) & 0xFF] < 0) {
+                    return new IllegalArgumentException("Illegal base64 character " + Integer.toHexString(src.get(i) & 0xFF) + " at " + i);
+                }
+            }
+            return new IllegalArgumentException("Illegal base64 input at " + groupStart);
+        }
+
+        @Override
+        public String toString() {
+            return vectorized ? "Base64Codec[" + SPECIES + "]" : "Base64Codec[scalar]";
+        }
+    }
+
+    /**
+     * Streams base64 encoding or decoding in front of another channel - constant memory (64k buffer) regardless of
+     * the payload size. close() flushes the final (padded) group and closes the target.
+     * <p>
+     * The buffer can be passed in to reuse it for many short lived channels - one channel at a time.
+     */
+    public static final class Base64Channel implements WritableByteChannel {
+        public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+        private final WritableByteChannel target;
+        private final Base64Codec codec;
+        private final boolean encoding;
+        private final int groupSize;
+        private final ByteBuffer pending = ByteBuffer.allocate(4); //incomplete group between writes
+        private final ByteBuffer out;
+        private boolean open = true;
+
+        private Base64Channel(WritableByteChannel target, Base64Codec codec, boolean encoding, ByteBuffer buffer) {
+            if (buffer.capacity() < 4) {
+                throw new IllegalArgumentException("buffer must hold at least one group (4 bytes): " + buffer.capacity());
+            }
+            this.target = target;
+            this.codec = codec;
+            this.encoding = encoding;
+            this.groupSize = encoding ? 3 : 4;
+            this.out = buffer.clear();
+        }
+
+        public static Base64Channel encoding(WritableByteChannel target, Base64Codec codec) {
+            return encoding(target, codec, ByteBuffer.allocate(DEFAULT_BUFFER_SIZE));
+        }
+
+        /**
+         * @param buffer output buffer (&gt;= 4 bytes), owned by the channel until it is closed
+         */
+        public static Base64Channel encoding(WritableByteChannel target, Base64Codec codec, ByteBuffer buffer) {
+            return new Base64Channel(target, codec, true, buffer);
+        }
+
+        public static Base64Channel decoding(WritableByteChannel target, Base64Codec codec) {
+            return decoding(target, codec, ByteBuffer.allocate(DEFAULT_BUFFER_SIZE));
+        }
+
+        /**
+         * @param buffer output buffer (&gt;= 4 bytes), owned by the channel until it is closed
+         */
+        public static Base64Channel decoding(WritableByteChannel target, Base64Codec codec, ByteBuffer buffer) {
+            return new Base64Channel(target, codec, false, buffer);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws java.io.IOException {
+            int written = src.remaining();
+            if (pending.position() > 0) {
+                while (pending.position() < groupSize && src.hasRemaining()) {
+                    pending.put(src.get());
+                }
+                if (pending.position() < groupSize || (!encoding && !src.hasRemaining())) {
+                    return written;
+                }
+                code(pending.flip(), false);
+                pending.clear();
+            }
+            int keep = encoding ? 0 : 1; //decoding: the last group may be padded - it is decoded by close()
+            while (src.remaining() - keep >= groupSize) {
+                int limit = src.limit();
+                src.limit(src.position() + (src.remaining() - keep) / groupSize * groupSize);
+                code(src, false);
+                src.limit(limit);
+            }
+            pending.put(src);
+            return written;
+        }
+
+        private void code(ByteBuffer src, boolean endOfInput) throws java.io.IOException {
+            if (encoding) {
+                codec.encode(src, out, endOfInput);
+            } else {
+                codec.decode(src, out, endOfInput);
+            }
+            out.flip();
+            while (out.hasRemaining()) {
+                target.write(out);
+            }
+            out.clear();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws java.io.IOException {
+            if (open) {
+                open = false;
+                code(pending.flip(), true);
+                target.close();
+            }
+        }
+    }
+
+    static final class NullChannel implements WritableByteChannel {
+        long written;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int bytes = src.remaining();
+            src.position(src.limit());
+            written += bytes;
+            return bytes;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 
 }
@@ -38,9 +38,17 @@ import org.mapstruct.factory.Mappers;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.module.jsr310.Jsr310Module;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.results.format.ResultFormatFactory;
 import org.openjdk.jmh.results.format.ResultFormatType;
@@ -52,6 +60,14 @@ import org.openjdk.jmh.runner.options.TimeValue;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
@@ -60,11 +76,27 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -84,6 +116,29 @@ Some of the analysed tools are pure deepCopiers but most of them are some kind o
 Many of the evaluated tools work quite well or "good-enough", so we can take into account which dependencies we want (or are allowed to) use to do the job.
 Read the results!
 
+Q: 300 model classes - hand written copy constructors do not scale. Anything close to them without writing them?
+A: GeneratedDeepCopier (benchmark: generatedDeepCopier). It inspects a class once and composes a MethodHandle that
+does the work of a copy constructor: direct field reads/writes, shares immutables (String, java.time, boxed, enums),
+pre-sizes lists. No serialization step and no intermediate representation - only the copy itself is allocated.
+It is not as fast as a copy constructor: every object costs a ClassValue lookup plus a call through a handle that
+is not a constant, so the JIT can not inline the copier into its caller (nor one node's copier into its parent's).
+The price: tree shaped graphs only (no identity tracking), needs a no-arg constructor and non-final fields.
+
+Q: I copy the whole tree, but then only change a few nodes...
+A: Don't copy the whole tree: HierarchicalMockModel.CopyOnWrite shares the tree with the source and copies only the
+path root -> node on the first write to a node (a persistent data structure). Creating it is O(1), each written node
+costs depth shallow copies (root, level1, level2, level3 + their sibling lists). Run main with "cow" -> CopyOnWriteJMH:
+copy + K mutations vs. full deep copy + K mutations for several tree sizes. Expect the copy-on-write variant to win
+by orders of magnitude for K << nodes, and the advantage to shrink once K approaches the number of level2 lists.
+
+Q: My trees have hundreds of thousands of nodes - and a copy runs on one core.
+A: HierarchicalMockModel.parallelCopy forks the copy at ModelLevel1 boundaries (independent subtrees) once the tree
+has more than minNodes nodes. Run main with "parallel" -> ParallelCopyJMH: copy constructor vs. parallelCopy over tree
+sizes - minNodes 0 always forks and shows the crossover point for your machine, minNodes 100000 shows what the
+threshold check costs below it (counting the nodes) and that it forks above it. Expect the fork/join overhead (~tens of
+us) to lose for the 1k node default model and the parallel copy to scale with the cores once a tree has 100k+ nodes -
+until memory bandwidth / allocation (TLAB refills) caps it.
+
 Q: are these all the tools?
 A: hell no, aint nobody got time for that. They are the fastest, most common or easiest to work with i found. Feel free to contribute.
 
@@ -299,6 +354,12 @@ public class DeepCopyJMH {
         return new HierarchicalMockModel(state.model);
     }
 
+    @Benchmark
+    public HierarchicalMockModel generatedDeepCopier(MyState state) {
+        //generic: per type composed MethodHandle, cached in a ClassValue
+        return GeneratedDeepCopier.deepCopy(state.model);
+    }
+
     @Benchmark
     public HierarchicalMockModel commonsLangClone(MyState state) {
         //requires all model classes to implement Serializable and uses javas ObjectOutputStream
@@ -469,6 +530,19 @@ public class DeepCopyJMH {
     //==========================================
 
     public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("cow")) {
+            new Runner(new OptionsBuilder()
+                    .include(CopyOnWriteJMH.class.getName())
+                    .addProfiler(GCProfiler.class)
+                    .build()).run();
+            return;
+        }
+        if (args.length > 0 && args[0].equals("parallel")) {
+            new Runner(new OptionsBuilder()
+                    .include(ParallelCopyJMH.class.getName())
+                    .build()).run();
+            return;
+        }
         DeepCopyJMH bench = new DeepCopyJMH();
 
         //test all impls if they produces the same result as the original model
@@ -528,7 +602,8 @@ public class DeepCopyJMH {
 
 
     public Collection<RunResult> benchmarkAllDeepCopyApproaches(int forks, int threads) throws Exception {
-        String include = JWildcard.wildcardToRegex(this.getClass().getName() + ".*");
+        //only this class' benchmarks - not the ones of the nested benchmark classes
+        String include = "^" + Pattern.quote(this.getClass().getName()) + "\\.\\w+$";
 
         var opt = new OptionsBuilder()
                 .include(include)
@@ -696,4 +771,298 @@ public class DeepCopyJMH {
             return parsed;
         }
     }
+
+    /**
+     * Generic deep copy without serialization. Every type is inspected once (reflection) and compiled into a single
+     * MethodHandle "new T() + copy every field". Copiers are cached per runtime class in a ClassValue - they are
+     * looked up per object and invoked through a non-constant handle, so unlike a hand written copy constructor the
+     * copier is not inlined into its caller.
+     * <ul>
+     * <li>shared, not copied: primitives, String, boxed primitives, BigInteger/BigDecimal, UUID, enums, java.time.*.
+     * If the declared field type already is one of them, the field is copied directly - no dispatch at all</li>
+     * <li>List/Set/Map: pre-sized ArrayList, LinkedHashSet/TreeSet, LinkedHashMap/TreeMap with deep copied elements -
+     * unmodifiable or special collection types become their plain mutable counterparts. Fields must be declared with
+     * a type that can hold that copy (List, Set, HashMap, ...) - a LinkedList, EnumSet, ConcurrentHashMap, Queue, ...
+     * field is rejected when the copier is built</li>
+     * <li>arrays: element wise (deep) copy</li>
+     * <li>everything else: the copier of the value's runtime class - requires a no-arg constructor and no final
+     * instance fields; all fields (including transient ones) are copied</li>
+     * </ul>
+     * Trees only: there is no identity map, so shared references are copied twice and cycles overflow the stack -
+     * exactly like copy constructors.
+     */
+    public static final class GeneratedDeepCopier {
+        private static final MethodHandle COPY_ANY; //(Object)Object
+        private static final Set<Class<?>> IMMUTABLE = Set.of(String.class, Boolean.class, Character.class,
+                Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+                BigInteger.class, BigDecimal.class, UUID.class, Class.class);
+
+        private static final ClassValue<UnaryOperator<Object>> COPIERS = new ClassValue<>() {
+            @Override
+            protected UnaryOperator<Object> computeValue(Class<?> type) {
+                if (isImmutable(type)) {
+                    return UnaryOperator.identity();
+                } else if (type.isArray()) {
+                    return GeneratedDeepCopier::copyArray;
+                } else if (List.class.isAssignableFrom(type)) {
+                    return src -> copyList((List<?>) src);
+                } else if (Set.class.isAssignableFrom(type)) {
+                    return src -> copySet((Set<?>) src);
+                } else if (Map.class.isAssignableFrom(type)) {
+                    return src -> copyMap((Map<?, ?>) src);
+                }
+                MethodHandle copier = compile(type);
+                return src -> {
+                    try {
+                        return (Object) copier.invokeExact(src);
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable t) {
+                        throw new IllegalStateException("failed to copy " + type.getName(), t);
+                    }
+                };
+            }
+        };
+
+        static {
+            try {
+                COPY_ANY = MethodHandles.lookup().findStatic(GeneratedDeepCopier.class, "copyAny",
+                        MethodType.methodType(Object.class, Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private GeneratedDeepCopier() {
+        }
+
+        @SuppressWarnings("unchecked")
+        public static <T> T deepCopy(T src) {
+            return (T) copyAny(src);
+        }
+
+        private static Object copyAny(Object src) {
+            return src == null ? null : COPIERS.get(src.getClass()).apply(src);
+        }
+
+        private static boolean isImmutable(Class<?> type) {
+            return type.isPrimitive()
+                   || IMMUTABLE.contains(type)
+                   || Enum.class.isAssignableFrom(type)
+                   || type.getPackageName().equals("java.time");
+        }
+
+        /**
+         * @return (Object)Object handle: new T(), then dst.f = copy(src.f) for every instance field of T and its
+         * super classes
+         */
+        private static MethodHandle compile(Class<?> type) {
+            try {
+                MethodHandle newInstance = MethodHandles.privateLookupIn(type, MethodHandles.lookup())
+                        .findConstructor(type, MethodType.methodType(void.class));
+                //(T dst, T src)void
+                MethodHandle copyFields = MethodHandles.empty(MethodType.methodType(void.class, type, type));
+                for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                    MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+                    for (Field f : c.getDeclaredFields()) {
+                        if (Modifier.isStatic(f.getModifiers())) {
+                            continue;
+                        }
+                        if (Modifier.isFinal(f.getModifiers())) {
+                            throw new IllegalArgumentException("final field not supported: " + f);
+                        }
+                        Class<?> fieldType = f.getType();
+                        if (!canHoldCollectionCopy(fieldType)) {
+                            throw new IllegalArgumentException("collection type not supported - the copy would be an "
+                                    + "ArrayList, LinkedHashSet/TreeSet or LinkedHashMap/TreeMap: " + f);
+                        }
+                        MethodHandle getter = lookup.unreflectGetter(f).asType(MethodType.methodType(fieldType, type));
+                        MethodHandle setter = lookup.unreflectSetter(f).asType(MethodType.methodType(void.class, type, fieldType));
+                        if (!isImmutable(fieldType)) {
+                            getter = MethodHandles.filterReturnValue(getter,
+                                    COPY_ANY.asType(MethodType.methodType(fieldType, fieldType)));
+                        }
+                        //dst.f = getter(src)
+                        copyFields = MethodHandles.foldArguments(copyFields, MethodHandles.filterArguments(setter, 1, getter));
+                    }
+                }
+                //(T dst, T src) -> dst
+                MethodHandle copyAndReturn = MethodHandles.foldArguments(
+                        MethodHandles.dropArguments(MethodHandles.identity(type), 1, type), copyFields);
+                //(T src) -> copyAndReturn(new T(), src)
+                return MethodHandles.foldArguments(copyAndReturn, newInstance)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("cannot generate a deep copier for " + type.getName(), e);
+            }
+        }
+
+        /**
+         * @return false if a value of this declared type can be a List/Set/Map (or an array of them) whose copy (see
+         * copyList/copySet/copyMap) is not assignable to it - e.g. LinkedList, EnumSet, ConcurrentHashMap, Queue
+         */
+        private static boolean canHoldCollectionCopy(Class<?> declared) {
+            while (declared.isArray()) {
+                declared = declared.getComponentType();
+            }
+            if (List.class.isAssignableFrom(declared)) {
+                return declared.isAssignableFrom(ArrayList.class);
+            } else if (Set.class.isAssignableFrom(declared)) {
+                //only a sorted source is copied into a TreeSet
+                Class<?> copy = SortedSet.class.isAssignableFrom(declared) ? TreeSet.class : LinkedHashSet.class;
+                return declared.isAssignableFrom(copy);
+            } else if (Map.class.isAssignableFrom(declared)) {
+                Class<?> copy = SortedMap.class.isAssignableFrom(declared) ? TreeMap.class : LinkedHashMap.class;
+                return declared.isAssignableFrom(copy);
+            } else if (Collection.class.isAssignableFrom(declared)) {
+                return declared.isAssignableFrom(ArrayList.class); //Collection, SequencedCollection - not Queue, Deque
+            }
+            return true;
+        }
+
+        private static Object copyArray(Object src) {
+            int length = Array.getLength(src);
+            Object dst = Array.newInstance(src.getClass().getComponentType(), length);
+            if (src.getClass().getComponentType().isPrimitive()) {
+                System.arraycopy(src, 0, dst, 0, length);
+            } else {
+                Object[] from = (Object[]) src;
+                Object[] to = (Object[]) dst;
+                for (int i = 0; i < length; i++) {
+                    to[i] = copyAny(from[i]);
+                }
+            }
+            return dst;
+        }
+
+        private static List<Object> copyList(List<?> src) {
+            ArrayList<Object> dst = new ArrayList<>(src.size());
+            if (src instanceof RandomAccess) {
+                for (int i = 0, size = src.size(); i < size; i++) {
+                    dst.add(copyAny(src.get(i)));
+                }
+            } else {
+                for (Object e : src) {
+                    dst.add(copyAny(e));
+                }
+            }
+            return dst;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Set<Object> copySet(Set<?> src) {
+            Set<Object> dst = src instanceof SortedSet<?> sorted
+                    ? new TreeSet<>((java.util.Comparator<Object>) sorted.comparator())
+                    : new LinkedHashSet<>((int) (src.size() / 0.75f) + 1);
+            for (Object e : src) {
+                dst.add(copyAny(e));
+            }
+            return dst;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<Object, Object> copyMap(Map<?, ?> src) {
+            Map<Object, Object> dst = src instanceof SortedMap<?, ?> sorted
+                    ? new TreeMap<>((java.util.Comparator<Object>) sorted.comparator())
+                    : new LinkedHashMap<>((int) (src.size() / 0.75f) + 1);
+            for (Map.Entry<?, ?> e : src.entrySet()) {
+                dst.put(copyAny(e.getKey()), copyAny(e.getValue()));
+            }
+            return dst;
+        }
+    }
+
+    /**
+     * End-to-end cost of "copy, then change K level3 nodes": full deep copy (copy constructor) vs. copy-on-write.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(2)
+    public static class CopyOnWriteJMH {
+        //level1 x level2 x level3 nodes
+        @Param({"10x10x10", "100x10x10", "100x100x10"})
+        public String tree;
+
+        @Param({"1", "10", "100"})
+        public int mutations;
+
+        HierarchicalMockModel model;
+        int[][] paths; //[mutation] -> {level1Idx, level2Idx, level3Idx}
+
+        @Setup
+        public void setup() {
+            int[] size = Arrays.stream(tree.split("x")).mapToInt(Integer::parseInt).toArray();
+            model = HierarchicalMockModel.newInstance(size[0], size[1], size[2]);
+            Random r = new Random(42);
+            paths = new int[mutations][];
+            for (int i = 0; i < mutations; i++) {
+                paths[i] = new int[]{r.nextInt(size[0]), r.nextInt(size[1]), r.nextInt(size[2])};
+            }
+        }
+
+        @Benchmark
+        public HierarchicalMockModel deepCopy_thenMutate() {
+            HierarchicalMockModel copy = new HierarchicalMockModel(model);
+            for (int[] p : paths) {
+                copy.getSubTypes().get(p[0]).getSubTypes().get(p[1]).getSubTypes().get(p[2]).setAInt(-1);
+            }
+            return copy;
+        }
+
+        @Benchmark
+        public HierarchicalMockModel copyOnWrite_thenMutate() {
+            var copy = new HierarchicalMockModel.CopyOnWrite(model);
+            for (int[] p : paths) {
+                copy.level3ForWrite(p[0], p[1], p[2]).setAInt(-1);
+            }
+            return copy.root();
+        }
+    }
+
+    /**
+     * Crossover point of the fork/join copy vs. the sequential copy constructor. parallelCopy with minNodes 0 always
+     * forks, with 100000 it copies the two smaller trees sequentially (after counting their nodes) and forks for the
+     * two bigger ones.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+    public static class ParallelCopyJMH {
+        //level1 x level2 x level3 nodes
+        @Param({"10x10x10", "100x10x10", "100x100x10", "1000x100x10"})
+        public String tree;
+
+        HierarchicalMockModel model;
+
+        @Setup
+        public void setup() {
+            int[] size = Arrays.stream(tree.split("x")).mapToInt(Integer::parseInt).toArray();
+            model = HierarchicalMockModel.newInstance(size[0], size[1], size[2]);
+        }
+
+        @Benchmark
+        public HierarchicalMockModel copyConstructor() {
+            return new HierarchicalMockModel(model);
+        }
+
+        /**
+         * Own state - the copyConstructor baseline does not depend on the threshold.
+         */
+        @State(Scope.Benchmark)
+        public static class Threshold {
+            @Param({"0", "100000"})
+            public int minNodes;
+        }
+
+        @Benchmark
+        public HierarchicalMockModel parallelCopy(Threshold threshold) {
+            return HierarchicalMockModel.parallelCopy(model, ForkJoinPool.commonPool(), threshold.minNodes);
+        }
+    }
 }
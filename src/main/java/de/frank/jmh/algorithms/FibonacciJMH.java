@@ -10,12 +10,26 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
 
 /*--
@@ -139,6 +153,40 @@ FibonacciJMH.run     DOUBLINGRECURSIVEHYBRID_1000  avgt    5      0,003 ±    0,
 FibonacciJMH.run    DOUBLINGRECURSIVEHYBRID_10000  avgt    5     11,381 ±   10,064  us/op #  and in recursive case also for bigger values
 FibonacciJMH.run   DOUBLINGRECURSIVEHYBRID_100000  avgt    5    541,571 ±   53,782  us/op #  and in recursive case also for bigger values
 FibonacciJMH.run  DOUBLINGRECURSIVEHYBRID_1000000  avgt    5  21851,834 ± 3664,835  us/op #  and in recursive case also for bigger values
+
+
+PARALLEL DOUBLING (DOUBLINGPARALLEL)
+=================
+For big n nearly all the time is spent in the 3 multiplications of each doubling step:
+  F(2k)   = F(k) * (2*F(k+1) - F(k))
+  F(2k+1) = F(k)^2 + F(k+1)^2
+They are independent: the two squares are forked, the product runs in the caller via BigInteger.parallelMultiply
+(JDK19+), which itself splits its Toom-Cook-3 recursion into ForkJoin tasks. The squares stay sequential each
+(BigInteger.square() has no parallel variant). Below 64k bits per operand a step runs sequentially - forking costs
+more than it saves.
+Expectations:
+ - fib(<=100.000): same as DOUBLING - the operands stay below the parallel threshold
+ - fib(1M+): the last few doubling steps dominate (each step doubles the operand size) - and those are the parallel ones
+ - speedup is capped well below the core count: the squares are 2 sequential tasks per step
+Run "FibonacciJMH parallel" to get the speedup by core count (ParallelDoublingJMH) for fib(1M), fib(10M), fib(100M).
+
+
+FILE LOOKUP TABLE (DOUBLINGHYBRIDFILE, DOUBLINGRECURSIVEHYBRIDFILE)
+=================
+The ~22us single shot overhead of the HYBRID variants is LazyFibHolder's class init: parsing 1024 hex strings into
+BigIntegers - although a single fib(n) only needs a handful of them (log2(n) doubling steps).
+The FILE variants read the same table from a precomputed binary file (FibLookupFile):
+ - class init only reads ~48KB with a RandomAccessFile into a byte[] - no parsing. No mmap: in a fresh JVM the first
+   FileChannel.map loads the NIO channel/MappedByteBuffer classes, which cost more than parsing the whole table.
+   RandomAccessFile is already loaded (the JDK reads the class path jars with it).
+ - an entry is decoded on its first access (new BigInteger(1, bytes, offset, length) - no copy) and cached
+The file is written (or validated) by main before any fork starts - like a table shipped with the application, so
+the forks never touch the BigInteger/NIO code that generates it. When running the benchmark jar directly, run
+FibLookupFile.main (with the same -Dfib.lookup.file) first. Everything else is part of the first measured call, same
+as the HYBRID variants pay their LazyFibHolder init.
+Expectations: cold (first single shot iteration) below HYBRID - a file read plus log2(n) small decodes instead of 1024
+hex parses (fib(1000) in a fresh JVM: ~2-3ms vs ~25-35ms in scratch runs); later iterations (warm, table decoded)
+the same as the HYBRID variants.
  */
 @State(Scope.Benchmark)
 @BenchmarkMode(Mode.SingleShotTime)
@@ -185,6 +233,14 @@ public class FibonacciJMH {
             "DOUBLING_10000",
             "DOUBLING_100000",
             "DOUBLING_1000000",
+            "DOUBLING_10000000",
+
+            //doubling with the independent multiplications of each step on a ForkJoinPool
+            "DOUBLINGPARALLEL_30",
+            "DOUBLINGPARALLEL_1000",
+            "DOUBLINGPARALLEL_100000",
+            "DOUBLINGPARALLEL_1000000",
+            "DOUBLINGPARALLEL_10000000",
 
             "DOUBLINGHYBRID_30",
             "DOUBLINGHYBRID_92",//highest to fit into 2^63-1 (a java long)
@@ -208,6 +264,21 @@ public class FibonacciJMH {
             "DOUBLINGRECURSIVEHYBRID_10000",
             "DOUBLINGRECURSIVEHYBRID_100000",
             "DOUBLINGRECURSIVEHYBRID_1000000",
+
+            //hybrid variants with the lookup table from a precomputed file
+            "DOUBLINGHYBRIDFILE_30",
+            "DOUBLINGHYBRIDFILE_92",//highest to fit into 2^63-1 (a java long)
+            "DOUBLINGHYBRIDFILE_1000",
+            "DOUBLINGHYBRIDFILE_10000",
+            "DOUBLINGHYBRIDFILE_100000",
+            "DOUBLINGHYBRIDFILE_1000000",
+
+            "DOUBLINGRECURSIVEHYBRIDFILE_30",
+            "DOUBLINGRECURSIVEHYBRIDFILE_92",//highest to fit into 2^63-1 (a java long)
+            "DOUBLINGRECURSIVEHYBRIDFILE_1000",
+            "DOUBLINGRECURSIVEHYBRIDFILE_10000",
+            "DOUBLINGRECURSIVEHYBRIDFILE_100000",
+            "DOUBLINGRECURSIVEHYBRIDFILE_1000000",
     })
     public String test;
 
@@ -220,11 +291,22 @@ public class FibonacciJMH {
         String[] params = test.split("_");
         this.impl = FibBig.valueOf(params[0]);
         this.size = Integer.parseInt(params[1]);
+        if ((impl == FibBig.DOUBLINGHYBRIDFILE || impl == FibBig.DOUBLINGRECURSIVEHYBRIDFILE)
+                && !new File(FibLookupFile.DEFAULT_PATH).isFile()) {
+            //the table is shipped (written by main) - reading and decoding it is part of the measured (cold) call
+            throw new IllegalStateException("missing " + FibLookupFile.DEFAULT_PATH + " - run FibonacciJMH.FibLookupFile.main first");
+        }
 
     }
 
     public static void main(String[] args) throws RunnerException {
+        if (args.length > 0 && args[0].equals("parallel")) {
+            runParallelSpeedup();
+            return;
+        }
         generateBigIntLookup(1024);
+        FibLookupFile.main(args); //ship the table for the *HYBRIDFILE variants - outside the forks
+        String lookupFile = "-Dfib.lookup.file=" + new File(FibLookupFile.DEFAULT_PATH).getAbsolutePath();
         System.out.println("Max fib(n) to fit long: " + (FibBig.LazyFibHolder.FIB.length - 1));
         //generate JMH parameters for impls
         generateJMHParams(
@@ -243,6 +325,7 @@ public class FibonacciJMH {
                         DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
                         FibonacciJMH.class.getSimpleName()))
                 .forks(1)
+                .jvmArgsAppend(lookupFile)
                 .mode(Mode.SingleShotTime)
                 .warmupIterations(0)
                 .measurementIterations(200)
@@ -284,7 +367,14 @@ public class FibonacciJMH {
                         "DOUBLING_10000",
                         "DOUBLING_100000",
                         "DOUBLING_1000000",
+                        "DOUBLING_10000000",
 
+                        //doubling with the independent multiplications of each step on a ForkJoinPool
+                        "DOUBLINGPARALLEL_30",
+                        "DOUBLINGPARALLEL_1000",
+                        "DOUBLINGPARALLEL_100000",
+                        "DOUBLINGPARALLEL_1000000",
+                        "DOUBLINGPARALLEL_10000000",
 
                         "DOUBLINGHYBRID_30",
                         "DOUBLINGHYBRID_92",//highest to fit into 2^63-1 (a java long)
@@ -307,7 +397,22 @@ public class FibonacciJMH {
                         "DOUBLINGRECURSIVEHYBRID_1000",
                         "DOUBLINGRECURSIVEHYBRID_10000",
                         "DOUBLINGRECURSIVEHYBRID_100000",
-                        "DOUBLINGRECURSIVEHYBRID_1000000"
+                        "DOUBLINGRECURSIVEHYBRID_1000000",
+
+                        //hybrid variants with the lookup table from a precomputed file
+                        "DOUBLINGHYBRIDFILE_30",
+                        "DOUBLINGHYBRIDFILE_92",//highest to fit into 2^63-1 (a java long)
+                        "DOUBLINGHYBRIDFILE_1000",
+                        "DOUBLINGHYBRIDFILE_10000",
+                        "DOUBLINGHYBRIDFILE_100000",
+                        "DOUBLINGHYBRIDFILE_1000000",
+
+                        "DOUBLINGRECURSIVEHYBRIDFILE_30",
+                        "DOUBLINGRECURSIVEHYBRIDFILE_92",//highest to fit into 2^63-1 (a java long)
+                        "DOUBLINGRECURSIVEHYBRIDFILE_1000",
+                        "DOUBLINGRECURSIVEHYBRIDFILE_10000",
+                        "DOUBLINGRECURSIVEHYBRIDFILE_100000",
+                        "DOUBLINGRECURSIVEHYBRIDFILE_1000000"
                 )
                 .build()).run();
 
@@ -318,6 +423,7 @@ public class FibonacciJMH {
                         DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
                         FibonacciJMH.class.getSimpleName()))
                 .forks(1)
+                .jvmArgsAppend(lookupFile)
                 .mode(Mode.AverageTime)
                 .timeUnit(TimeUnit.MICROSECONDS)
                 .warmupIterations(5)
@@ -336,6 +442,30 @@ public class FibonacciJMH {
 
     }
 
+    private static void runParallelSpeedup() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(ParallelDoublingJMH.class.getName())
+                .resultFormat(ResultFormatType.JSON)
+                .result(String.format("%s_%s.json",
+                        DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
+                        ParallelDoublingJMH.class.getSimpleName()))
+                .build()).run();
+
+        //n -> parallelism -> ms/op
+        Map<Integer, Map<Integer, Double>> scores = new TreeMap<>();
+        for (RunResult r : results) {
+            int n = Integer.parseInt(r.getParams().getParam("n"));
+            int parallelism = Integer.parseInt(r.getParams().getParam("parallelism"));
+            scores.computeIfAbsent(n, k -> new TreeMap<>()).put(parallelism, r.getPrimaryResult().getScore());
+        }
+        System.out.println("Speedup of DOUBLINGPARALLEL vs. parallelism 1 (" + Runtime.getRuntime().availableProcessors() + " cores available)");
+        scores.forEach((n, byParallelism) -> {
+            double base = byParallelism.values().iterator().next();
+            byParallelism.forEach((parallelism, ms) ->
+                    System.out.printf("fib(%,d) parallelism %2d: %,10.1f ms/op  speedup %.2fx%n", n, parallelism, ms, base / ms));
+        });
+    }
+
     private static void generateJMHParams(int... sizes) {
         System.out.println("@Param({");
         for (FibBig impl : FibBig.values()) {
@@ -581,6 +711,62 @@ public class FibonacciJMH {
             }
 
         },
+        DOUBLINGHYBRIDFILE {
+            @Override
+            public String toString() {
+                return "Fast doubling - iterative with hybrid lookup from a file";
+            }
+
+            @Override
+            public BigInteger calculate(int n) {
+                FibLookupFile table = FileFibHolder.TABLE;
+                BigInteger a = BigInteger.ZERO;
+                BigInteger b = BigInteger.ONE;
+                int m = 0;
+                for (int bit = Integer.highestOneBit(n); bit != 0; bit >>>= 1) {
+                    // Double it
+                    m *= 2;
+                    //fib(m) in table?
+                    if ((m + 1) < table.size()) {
+                        a = table.get(m);
+                        b = table.get(m + 1);
+                    } else {//table miss
+                        BigInteger d = a.multiply(b.shiftLeft(1).subtract(a));
+                        BigInteger e = a.multiply(a).add(b.multiply(b));
+                        a = d;
+                        b = e;
+                    }
+
+                    // Advance by one conditionally
+                    if ((n & bit) != 0) {
+                        m++;
+                        //fib(m) in table?
+                        if ((m + 1) < table.size()) {
+                            a = table.get(m);
+                            b = table.get(m + 1);
+                        } else {//table miss
+                            BigInteger c = a.add(b);
+                            a = b;
+                            b = c;
+                        }
+                    }
+                }
+                return a;
+            }
+        },
+
+        DOUBLINGPARALLEL {
+            @Override
+            public String toString() {
+                return "Fast doubling - iterative with parallel multiplications";
+            }
+
+            @Override
+            public BigInteger calculate(int n) {
+                return calculate(n, ForkJoinPool.commonPool());
+            }
+        },
+
         DOUBLINGRECURSIVE {
             @Override
             public String toString() {
@@ -640,6 +826,35 @@ public class FibonacciJMH {
             }
 
         },
+        DOUBLINGRECURSIVEHYBRIDFILE {
+            @Override
+            public String toString() {
+                return "recursive doubling with lookup table from a file";
+            }
+
+            @Override
+            public BigInteger calculate(int n) {
+                return fastFibonacciDoubling_recursiveHybrid(FileFibHolder.TABLE, n);
+            }
+
+            private BigInteger fastFibonacciDoubling_recursiveHybrid(FibLookupFile table, int index) {
+                if (index < table.size()) {
+                    return table.get(index);
+                }
+
+                if (index % 2 == 0) {
+                    int k = index / 2;
+                    BigInteger fk = fastFibonacciDoubling_recursiveHybrid(table, k);
+                    BigInteger fk1 = fastFibonacciDoubling_recursiveHybrid(table, k + 1);
+                    return fk.multiply(fk1.shiftLeft(1).subtract(fk));
+                } else {
+                    int k = (index - 1) / 2;
+                    BigInteger fk = fastFibonacciDoubling_recursiveHybrid(table, k);
+                    BigInteger fk1 = fastFibonacciDoubling_recursiveHybrid(table, k + 1);
+                    return fk.multiply(fk).add(fk1.multiply(fk1));
+                }
+            }
+        },
         BINET {
 
             /**
@@ -695,6 +910,55 @@ public class FibonacciJMH {
 
         public abstract BigInteger calculate(int n);
 
+        /**
+         * operand size (bits) from which the multiplications of a doubling step are run in parallel
+         */
+        private static final int PARALLEL_THRESHOLD_BITS = 1 << 16;
+
+        /**
+         * {@link #DOUBLINGPARALLEL} on the given pool. All forks - including the ones of BigInteger.parallelMultiply -
+         * stay inside the pool, so its parallelism is the number of cores used.
+         */
+        public static BigInteger calculate(int n, ForkJoinPool pool) {
+            return pool.invoke(ForkJoinTask.adapt(() -> doublingParallel(n)));
+        }
+
+        private static BigInteger doublingParallel(int n) {
+            BigInteger a = BigInteger.ZERO;
+            BigInteger b = BigInteger.ONE;
+            for (int bit = Integer.highestOneBit(n); bit != 0; bit >>>= 1) {
+                // Double it
+                BigInteger d;
+                BigInteger e;
+                if (a.bitLength() < PARALLEL_THRESHOLD_BITS) {
+                    d = a.multiply(b.shiftLeft(1).subtract(a));
+                    e = a.multiply(a).add(b.multiply(b));
+                } else {
+                    BigInteger fa = a;
+                    BigInteger fb = b;
+                    ForkJoinTask<BigInteger> aa = ForkJoinTask.adapt(() -> fa.multiply(fa)).fork();
+                    ForkJoinTask<BigInteger> bb = ForkJoinTask.adapt(() -> fb.multiply(fb)).fork();
+                    d = fa.parallelMultiply(fb.shiftLeft(1).subtract(fa));
+                    e = aa.join().add(bb.join());
+                }
+                a = d;
+                b = e;
+
+                // Advance by one conditionally
+                if ((n & bit) != 0) {
+                    BigInteger c = a.add(b);
+                    a = b;
+                    b = c;
+                }
+            }
+            return a;
+        }
+
+
+        //Lazy holder - reads the table file on first use, entries are decoded on their first access
+        private static class FileFibHolder {
+            public static final FibLookupFile TABLE = FibLookupFile.read(FibLookupFile.DEFAULT_PATH);
+        }
 
         //Lazy holder to prevent performance penalty at class loading time for other algorithm implementations not requiring this pre-computed values
         private static class LazyFibHolder {
@@ -1746,4 +2010,160 @@ public class FibonacciJMH {
         }
 
     }
+
+    /**
+     * Speedup of {@link FibBig#DOUBLINGPARALLEL} by core count: the whole calculation runs inside a ForkJoinPool with
+     * the given parallelism.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Fork(1)
+    public static class ParallelDoublingJMH {
+        @Param({"1000000", "10000000", "100000000"})
+        public int n;
+
+        @Param({"1", "2", "4", "8", "16"})
+        public int parallelism;
+
+        private ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.shutdown();
+        }
+
+        @Benchmark
+        public BigInteger doublingParallel() {
+            return FibBig.calculate(n, pool);
+        }
+    }
+
+    /**
+     * Precomputed fib(0)..fib(size-1) as a compact binary file, read in one go and decoded lazily.
+     * <pre>
+     * int   magic             'FIB1'
+     * int   size              number of entries
+     * int[] offsets[size + 1] start of entry n in the data section, offsets[size] == data length
+     * byte[] data             unsigned big-endian magnitudes (BigInteger.toByteArray() without the sign byte)
+     * </pre>
+     * The 1024 entry table is ~48KB. It is read with a RandomAccessFile into a byte[] - no NIO channel/mmap classes to
+     * load in a cold JVM. Decoded entries are cached - racy but benign: BigInteger is immutable, so concurrent first
+     * accesses at worst decode the same entry twice.
+     * <p>
+     * Run main (e.g. as a build step, optionally with -Dfib.lookup.file=...) to write the file.
+     */
+    public static final class FibLookupFile {
+        public static final String DEFAULT_PATH = System.getProperty("fib.lookup.file",
+                new File(System.getProperty("java.io.tmpdir"), "fib_lookup_1024.bin").getPath());
+        public static final int DEFAULT_SIZE = 1024;
+        private static final int MAGIC = 0x46494231; //"FIB1"
+        private static final int HEADER_BYTES = 8;
+
+        private final byte[] file;
+        private final int size;
+        private final int dataStart;
+        private final BigInteger[] decoded;
+
+        private FibLookupFile(byte[] file) {
+            if (file.length < HEADER_BYTES || readInt(file, 0) != MAGIC) {
+                throw new IllegalStateException("not a fib lookup file");
+            }
+            this.file = file;
+            this.size = readInt(file, 4);
+            this.dataStart = HEADER_BYTES + (size + 1) * Integer.BYTES;
+            if (size < 0 || dataStart > file.length || dataStart + offset(size) != file.length) {
+                throw new IllegalStateException("corrupt fib lookup file: " + size + " entries, " + file.length + " bytes");
+            }
+            this.decoded = new BigInteger[size];
+        }
+
+        public static void main(String[] args) {
+            writeIfInvalid(DEFAULT_PATH, DEFAULT_SIZE);
+            System.out.println("fib lookup file: " + new File(DEFAULT_PATH).getAbsolutePath());
+        }
+
+        public static FibLookupFile read(String path) {
+            try (RandomAccessFile in = new RandomAccessFile(path, "r")) {
+                byte[] file = new byte[(int) in.length()];
+                in.readFully(file);
+                return new FibLookupFile(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to read fib lookup file " + path
+                        + " - write it with FibonacciJMH.FibLookupFile.main", e);
+            }
+        }
+
+        /**
+         * Writes the table unless the file already holds exactly the expected content - a stale or truncated file
+         * (e.g. left in java.io.tmpdir) would otherwise silently yield wrong numbers.
+         */
+        public static void writeIfInvalid(String path, int size) {
+            byte[] expected = encode(size);
+            Path target = Paths.get(path);
+            try {
+                if (Files.isRegularFile(target) && Files.size(target) == expected.length
+                        && Arrays.equals(Files.readAllBytes(target), expected)) {
+                    return;
+                }
+                Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+                Files.write(tmp, expected);
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to write fib lookup file " + path, e);
+            }
+        }
+
+        static byte[] encode(int size) {
+            byte[][] magnitudes = new byte[size][];
+            int dataBytes = 0;
+            for (int n = 0; n < size; n++) {
+                byte[] bytes = FibBig.DOUBLING.calculate(n).toByteArray();
+                int signBytes = bytes[0] == 0 ? 1 : 0; //fib(n) >= 0 - drop the sign byte
+                magnitudes[n] = Arrays.copyOfRange(bytes, signBytes, bytes.length);
+                dataBytes += magnitudes[n].length;
+            }
+            ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + (size + 1) * Integer.BYTES + dataBytes);
+            out.putInt(MAGIC).putInt(size);
+            int offset = 0;
+            for (byte[] magnitude : magnitudes) {
+                out.putInt(offset);
+                offset += magnitude.length;
+            }
+            out.putInt(offset);
+            for (byte[] magnitude : magnitudes) {
+                out.put(magnitude);
+            }
+            return out.array();
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public BigInteger get(int n) {
+            BigInteger fib = decoded[n];
+            if (fib == null) {
+                int offset = offset(n);
+                fib = new BigInteger(1, file, dataStart + offset, offset(n + 1) - offset);
+                decoded[n] = fib;
+            }
+            return fib;
+        }
+
+        private int offset(int n) {
+            return readInt(file, HEADER_BYTES + n * Integer.BYTES);
+        }
+
+        private static int readInt(byte[] b, int i) { //big-endian, like ByteBuffer.putInt
+            return (b[i] << 24) | ((b[i + 1] & 0xFF) << 16) | ((b[i + 2] & 0xFF) << 8) | (b[i + 3] & 0xFF);
+        }
+    }
 }
@@ -19,6 +19,7 @@ import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jol.info.GraphLayout;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -31,6 +32,7 @@ import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -67,6 +69,10 @@ A: Memory density, layout and predictability often matters. They implement a cus
    Q: Then why are they here?
    A: To show you good idea/intention != faster - and so you dont have to trie (phun intended) your similar ideas.
 
+Q: And memory?
+A: ns/op is only half of the decision. Run main with the argument "footprint" to get the deep retained heap (JOL) of
+   every matcher per prefix, without any timing. A normal run prints the same "B/prefix" next to the ns/op matrix.
+
 
 
 Benchmark                                (prefixesCount)  Mode  Cnt         Score         Error  Units
@@ -401,6 +407,46 @@ public class PrefixSearchBlacklistJMH {
         return hashSetExactMatch.test(in);
     }
 
+    /**
+     * benchmark method name -> the matcher instance this benchmark exercises.
+     * Used by the footprint mode to put "retained heap" next to "ns/op".
+     */
+    Map<String, Object> matchersByBenchmark() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("startsWith_naiveList", naiveListPrefixMatcher);
+        m.put("startsWith_regex_patternPerPrefix", regexMatcher_patternPerPrefix);
+        m.put("startsWith_regex_singlePatternForAll", regexMatcher_singlePatternForAll);
+        m.put("startsWith_sortedList", sortedListPrefixMatcher);
+        m.put("startsWith_sortedFlatListPrefixMatcher", sortedFlatListPrefixMatcher);
+        m.put("exact_sortedList_binarySearch", sortedListBinarySearchExactMatchPrefixMatcher);
+        m.put("startsWith_searchTrie", simpleTriePrefixMatch);
+        m.put("startsWith_searchTrie_flatMemory", runtimeTrie);
+        m.put("startsWith_searchTrie_flatMemoryBytes", runtimeTrieBytes);
+        m.put("exact_hashSet_exact_match", hashSetExactMatch);
+        return m;
+    }
+
+    /**
+     * Footprint mode: deep retained heap size of every matcher (JOL reachability walk over the whole object graph,
+     * including the prefix Strings a matcher keeps alive) divided by the number of prefixes.
+     *
+     * @return benchmark method name -> prefixesCount -> bytes/prefix
+     */
+    static Map<String, Map<String, Double>> measureFootprint(Collection<String> prefixesCounts) {
+        Map<String, Map<String, Double>> footprint = new LinkedHashMap<>();
+        for (String prefixesCount : prefixesCounts) {
+            PrefixSearchBlacklistJMH instance = new PrefixSearchBlacklistJMH();
+            instance.prefixesCount = Integer.parseInt(prefixesCount);
+            instance.setup();
+            instance.matchersByBenchmark().forEach((benchmark, matcher) -> {
+                long bytes = GraphLayout.parseInstance(matcher).totalSize();
+                footprint.computeIfAbsent(benchmark, k -> new LinkedHashMap<>())
+                        .put(prefixesCount, (double) bytes / instance.prefixesCount);
+            });
+        }
+        return footprint;
+    }
+
     //@Benchmark
     //public boolean startsWith_eclipseJettyArrayTernaryTrie() {
     //    String in = getRandomTestString();
@@ -1564,6 +1610,16 @@ public class PrefixSearchBlacklistJMH {
 
 
     public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("footprint")) {
+            //footprint mode: no timing, only retained heap of all matchers for all @Param values
+            List<String> prefixesCounts = Arrays.asList(PrefixSearchBlacklistJMH.class.getDeclaredField("prefixesCount").getAnnotation(Param.class).value());
+            Map<String, List<String>> lines = new LinkedHashMap<>();
+            measureFootprint(prefixesCounts).forEach((benchmark, bytesPerPrefix) ->
+                    lines.put(benchmark, bytesPerPrefix.values().stream().map(b -> String.format("%.1f", b)).collect(Collectors.toList())));
+            BenchmarkFormatter.displayAsMatrix("Units: B/prefix", prefixesCounts, lines);
+            return;
+        }
+
         SimpleTriePrefixMatch simpleTrie = new SimpleTriePrefixMatch(List.of("a.b", "a.c", "d.e"));
         RuntimeTrie runtimeTrie = RuntimeTrie.constructFrom(simpleTrie.root);
         RuntimeTrieBytes runtimeTrieB = RuntimeTrieBytes.constructFrom(simpleTrie.root);
@@ -1696,6 +1752,17 @@ public class PrefixSearchBlacklistJMH {
         Collection<RunResult> results = new Runner(benchOptions).run();
         BenchmarkFormatter.displayAsMatrix(results, "prefixesCount");
 
+        //same table, but with the retained heap of each matcher next to its ns/op
+        Map<String, Map<String, Double>> footprint = measureFootprint(results.stream()
+                .map(r -> r.getParams().getParam("prefixesCount"))
+                .distinct()
+                .collect(Collectors.toList()));
+        BenchmarkFormatter.displayAsMatrix(results, "prefixesCount", "B/prefix",
+                (benchmark, prefixesCount) -> {
+                    Double bytesPerPrefix = footprint.getOrDefault(benchmark, Collections.emptyMap()).get(prefixesCount);
+                    return bytesPerPrefix == null ? null : String.format("%.1f", bytesPerPrefix);
+                });
+
     }
 
     private static void execAllTestMethods(Supplier<PrefixSearchBlacklistJMH> instanceSupplier) {
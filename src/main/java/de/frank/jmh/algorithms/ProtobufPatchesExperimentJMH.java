@@ -1,5 +1,7 @@
 package de.frank.jmh.algorithms;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.*;
 import org.openjdk.jmh.profile.*;
@@ -74,6 +76,14 @@ Probufcrap.fixed:·gc.churn.PS_Survivor_Space         thrpt   30          0.217
 Probufcrap.fixed:·gc.churn.PS_Survivor_Space.norm    thrpt   30          0.003 ±        0.001    B/op
 Probufcrap.fixed:·gc.count                           thrpt   30        483.000                 counts
 Probufcrap.fixed:·gc.time                            thrpt   30        303.000                     ms
+
+ Q: The fixed version still allocates 120B/op - where from?
+ A: writeDelimitedTo creates a new CodedOutputStream and its byte[] buffer on every call. StringFieldSerializer keeps
+    one CodedOutputStream + buffer per thread and redirects it to the target stream per call => 0 B/op besides the
+    message itself. Wide messages (10..100 string fields, new instance per op) in StringFieldsJMH:
+    byteStringPerField allocates one ByteString + byte[] per field, writeStringPerField only the encoder,
+    pooledSerializer nothing. The *_prebuilt variants serialize the same message again and again - the size comes
+    from memoizedSize, only the encoding is left. Run: ProtobufPatchesExperimentJMH$StringFieldsJMH.main
  */
 @BenchmarkMode(Mode.Throughput)
 @OutputTimeUnit(TimeUnit.SECONDS)
@@ -158,6 +168,255 @@ public class ProtobufPatchesExperimentJMH {
         }
     }
 
+    /**
+     * Wide messages: 10..100 string fields serialized per op.
+     * <p>
+     * Every op serializes a new message instance (as a server does per response), so the per-instance size cache
+     * and the per-field ByteString conversion of the generated code are paid on every op. The *_prebuilt variants
+     * serialize one message built in setup (e.g. a cached response) - getSerializedSize() returns the memoized size.
+     * <ul>
+     * <li>byteStringPerField - what protoc generates: String -&gt; ByteString per field, new CodedOutputStream per writeDelimitedTo</li>
+     * <li>writeStringPerField - the "fixed" patch: CodedOutputStream.writeString, new CodedOutputStream per writeDelimitedTo</li>
+     * <li>pooledSerializer - {@link StringFieldSerializer}: writeString into a pooled CodedOutputStream/byte[]</li>
+     * </ul>
+     */
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(value = 3, jvmArgsAppend = "-XX:+UseParallelGC")
+    @Threads(16)
+    @State(Scope.Thread)
+    public static class StringFieldsJMH {
+        @Param({"10", "50", "100"})
+        private int fieldCount;
+
+        private String[] values;
+        private StringFieldsMessage prebuilt;
+        private BlackHoleOutputStream blackholeOut;
+        private StringFieldSerializer serializer;
+
+        public static void main(String[] args) throws RunnerException {
+            Options opt = new OptionsBuilder()
+                    .include(StringFieldsJMH.class.getName())
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(String.format("%s_%s.json",
+                            DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
+                            StringFieldsJMH.class.getSimpleName()))
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            new Runner(opt).run();
+        }
+
+        @Setup
+        public void setup(Blackhole blackhole) {
+            values = new String[fieldCount];
+            for (int i = 0; i < fieldCount; i++) {
+                values[i] = "value-" + i + (i % 3 == 0 ? "-äöü" : ""); //some non ascii
+            }
+            prebuilt = new StringFieldsMessage(values);
+            blackholeOut = new BlackHoleOutputStream(blackhole);
+            serializer = new StringFieldSerializer(StringFieldSerializer.DEFAULT_BUFFER_SIZE);
+        }
+
+        @Benchmark
+        public void byteStringPerField() throws IOException {
+            new StringFieldsMessage(values).writeDelimitedToViaByteStrings(blackholeOut);
+        }
+
+        @Benchmark
+        public void writeStringPerField() throws IOException {
+            new StringFieldsMessage(values).writeDelimitedTo(blackholeOut);
+        }
+
+        @Benchmark
+        public void pooledSerializer() throws IOException {
+            serializer.writeDelimitedTo(new StringFieldsMessage(values), blackholeOut);
+        }
+
+        @Benchmark
+        public void writeStringPerField_prebuilt() throws IOException {
+            prebuilt.writeDelimitedTo(blackholeOut);
+        }
+
+        @Benchmark
+        public void pooledSerializer_prebuilt() throws IOException {
+            serializer.writeDelimitedTo(prebuilt, blackholeOut);
+        }
+    }
+
+    /**
+     * Stand in for a generated proto3 message with only string fields: field numbers 1..N, empty or null means absent.
+     * The serialized size is cached per instance like the generated code's memoizedSize.
+     */
+    public static final class StringFieldsMessage {
+        private final String[] fields;
+        private int memoizedSize = -1;
+
+        public StringFieldsMessage(String[] fields) {
+            this.fields = fields;
+        }
+
+        public int getFieldCount() {
+            return fields.length;
+        }
+
+        public String getField(int index) {
+            return fields[index];
+        }
+
+        public int getSerializedSize() {
+            int size = memoizedSize;
+            if (size != -1) {
+                return size;
+            }
+            size = 0;
+            for (int i = 0; i < fields.length; i++) {
+                String s = fields[i];
+                if (s != null && !s.isEmpty()) {
+                    size += CodedOutputStream.computeStringSize(i + 1, s);
+                }
+            }
+            memoizedSize = size;
+            return size;
+        }
+
+        public void writeTo(CodedOutputStream output) throws IOException {
+            for (int i = 0; i < fields.length; i++) {
+                String s = fields[i];
+                if (s != null && !s.isEmpty()) {
+                    output.writeString(i + 1, s);
+                }
+            }
+        }
+
+        /**
+         * Same as AbstractMessageLite.writeDelimitedTo: new CodedOutputStream (and buffer) per call.
+         */
+        public void writeDelimitedTo(OutputStream out) throws IOException {
+            int serialized = getSerializedSize();
+            int bufferSize = Math.min(CodedOutputStream.DEFAULT_BUFFER_SIZE,
+                    CodedOutputStream.computeUInt32SizeNoTag(serialized) + serialized);
+            CodedOutputStream output = CodedOutputStream.newInstance(out, bufferSize);
+            output.writeUInt32NoTag(serialized);
+            writeTo(output);
+            output.flush();
+        }
+
+        /**
+         * What protoc generates for string fields: getXXXBytes() converts each String to a ByteString.
+         */
+        public void writeDelimitedToViaByteStrings(OutputStream out) throws IOException {
+            ByteString[] bytes = new ByteString[fields.length];
+            int serialized = 0;
+            for (int i = 0; i < fields.length; i++) {
+                String s = fields[i];
+                if (s != null && !s.isEmpty()) {
+                    bytes[i] = ByteString.copyFromUtf8(s);
+                    serialized += CodedOutputStream.computeBytesSize(i + 1, bytes[i]);
+                }
+            }
+            int bufferSize = Math.min(CodedOutputStream.DEFAULT_BUFFER_SIZE,
+                    CodedOutputStream.computeUInt32SizeNoTag(serialized) + serialized);
+            CodedOutputStream output = CodedOutputStream.newInstance(out, bufferSize);
+            output.writeUInt32NoTag(serialized);
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] != null) {
+                    output.writeBytes(i + 1, bytes[i]);
+                }
+            }
+            output.flush();
+        }
+    }
+
+    /**
+     * Zero allocation serializer for string field messages.
+     * <p>
+     * Every thread owns one CodedOutputStream with its byte[] buffer, created once and reused for every message. The
+     * encoder writes into a {@link RedirectingOutputStream} which is pointed at the caller's stream for the duration of
+     * one call. Strings are encoded by CodedOutputStream.writeString straight into the buffer - no ByteString, no
+     * byte[] per field. Thread safe, as the encoders are per thread.
+     */
+    public static final class StringFieldSerializer {
+        public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+        private final ThreadLocal<PooledEncoder> encoders;
+
+        public StringFieldSerializer(int bufferSize) {
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("bufferSize must be > 0: " + bufferSize);
+            }
+            this.encoders = ThreadLocal.withInitial(() -> new PooledEncoder(bufferSize));
+        }
+
+        /**
+         * Writes the varint32 size followed by the message, wire compatible to MessageLite.writeDelimitedTo.
+         */
+        public void writeDelimitedTo(StringFieldsMessage message, OutputStream out) throws IOException {
+            PooledEncoder encoder = encoders.get();
+            encoder.target.redirectTo(out);
+            try {
+                encoder.output.writeUInt32NoTag(message.getSerializedSize());
+                message.writeTo(encoder.output);
+                encoder.output.flush();
+            } catch (IOException | RuntimeException e) {
+                encoders.remove(); //buffer may hold a partial message - never reuse it
+                throw e;
+            } finally {
+                encoder.target.redirectTo(null);
+            }
+        }
+
+        /**
+         * Writes the message into the caller's (reusable) array - must have room for
+         * {@link StringFieldsMessage#getSerializedSize()} bytes. Allocates only the small array encoder, no buffer.
+         *
+         * @return number of bytes written
+         */
+        public int writeTo(StringFieldsMessage message, byte[] dst, int offset) throws IOException {
+            int size = message.getSerializedSize();
+            CodedOutputStream output = CodedOutputStream.newInstance(dst, offset, size);
+            message.writeTo(output);
+            output.checkNoSpaceLeft();
+            return size;
+        }
+
+        private static final class PooledEncoder {
+            final RedirectingOutputStream target = new RedirectingOutputStream();
+            final CodedOutputStream output;
+
+            PooledEncoder(int bufferSize) {
+                output = CodedOutputStream.newInstance(target, bufferSize);
+            }
+        }
+    }
+
+    /**
+     * OutputStream with a replaceable delegate - lets a long lived CodedOutputStream write to a new stream per call.
+     */
+    private static final class RedirectingOutputStream extends OutputStream {
+        private OutputStream delegate;
+
+        void redirectTo(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+    }
+
     public static final class Version_Fixed {
         private Version_Fixed() {
         }
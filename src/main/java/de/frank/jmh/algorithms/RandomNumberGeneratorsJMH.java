@@ -11,6 +11,7 @@ import java.time.*;
 import java.time.format.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.random.RandomGeneratorFactory;
 
 /*--
 
@@ -38,6 +39,13 @@ dsi.XorShift64StarRandom*      173.209.529  131.579.301  160.454.976   56.002.23
 
 Remarks: Interestingly all PRNG's have performance issues generating bounded integers
 
+Parallel workloads (see ParallelFillJMH, run with: main parallel):
+Every worker thread needs its own generator - and the streams must not overlap/correlate. Seeding N generators with
+"seed + threadIdx" is NOT good enough. IndependentStreams hands out one stream per worker:
+ - SplittableRandom / LXM family (L64X128MixRandom, L64X256MixRandom, L128X256MixRandom): split()
+ - Xoroshiro128PlusPlus / Xoshiro256PlusPlus: jump() - each worker gets a copy 2^64 (2^128) steps ahead
+ - ThreadLocalRandom: baseline - per thread by design, not reproducible
+
 @ VM version: JDK 10, VM 10+46
 @ Single Threaded
                                                  double       double          int          int        long
@@ -303,9 +311,131 @@ public class RandomNumberGeneratorsJMH {
         }
     }
 
+    /**
+     * One independent, reproducible (same seed -> same streams) generator per worker.
+     */
+    public static final class IndependentStreams {
+        private IndependentStreams() {
+        }
+
+        /**
+         * @param algorithm any JDK17+ RandomGeneratorFactory name that is splittable or jumpable
+         */
+        public static java.util.random.RandomGenerator[] create(String algorithm, int workers, long seed) {
+            java.util.random.RandomGenerator root = RandomGeneratorFactory.of(algorithm).create(seed);
+            if (root instanceof java.util.random.RandomGenerator.SplittableGenerator splittable) {
+                return splittable.splits(workers).toArray(java.util.random.RandomGenerator[]::new);
+            }
+            if (root instanceof java.util.random.RandomGenerator.JumpableGenerator jumpable) {
+                return jumpable.jumps(workers).toArray(java.util.random.RandomGenerator[]::new);
+            }
+            throw new IllegalArgumentException(algorithm + " is neither splittable nor jumpable");
+        }
+
+        /**
+         * Worker's generator re-allocated by the calling (worker) thread - split() child or copy() - keeps the
+         * frequently written generator states of different workers on different cache lines.
+         */
+        static java.util.random.RandomGenerator localCopy(java.util.random.RandomGenerator r) {
+            if (r instanceof java.util.random.RandomGenerator.SplittableGenerator splittable) {
+                return splittable.split();
+            }
+            if (r instanceof java.util.random.RandomGenerator.JumpableGenerator jumpable) {
+                return jumpable.copy();
+            }
+            return r;
+        }
+    }
+
+    /*
+     * Bulk fills into primitive arrays with one generator per worker thread.
+     * score = total ops/s over all threads (JMH sums up the thread results).
+     */
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(1)
+    public static class ParallelFillJMH {
+
+        @State(Scope.Benchmark)
+        public static class Streams {
+            @Param({
+                    "ThreadLocalRandom",
+                    "SplittableRandom",
+                    "L64X128MixRandom",
+                    "L64X256MixRandom",
+                    "L128X256MixRandom",
+                    "Xoroshiro128PlusPlus",
+                    "Xoshiro256PlusPlus"
+            })
+            private String algorithm;
+
+            private java.util.random.RandomGenerator[] generators;
+
+            @Setup
+            public void setup(BenchmarkParams params) {
+                if (!"ThreadLocalRandom".equals(algorithm)) {
+                    generators = IndependentStreams.create(algorithm, params.getThreads(), 42);
+                }
+            }
+        }
+
+        @State(Scope.Thread)
+        public static class Worker {
+            @Param({"4096"})
+            private int size;
+
+            private java.util.random.RandomGenerator r;
+            private long[] longs;
+            private double[] doubles;
+
+            @Setup
+            public void setup(Streams streams, ThreadParams thread) {
+                r = streams.generators == null
+                        ? ThreadLocalRandom.current() //setup runs in the worker thread
+                        : IndependentStreams.localCopy(streams.generators[thread.getThreadIndex()]);
+                longs = new long[size];
+                doubles = new double[size];
+            }
+        }
+
+        @Benchmark
+        public long[] nextLong(Worker w) {
+            long[] a = w.longs;
+            java.util.random.RandomGenerator r = w.r;
+            for (int i = 0; i < a.length; i++) {
+                a[i] = r.nextLong();
+            }
+            return a;
+        }
+
+        @Benchmark
+        public double[] nextDouble(Worker w) {
+            double[] a = w.doubles;
+            java.util.random.RandomGenerator r = w.r;
+            for (int i = 0; i < a.length; i++) {
+                a[i] = r.nextDouble();
+            }
+            return a;
+        }
+    }
+
     public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "parallel".equals(args[0])) {
+            for (int threads : new int[]{1, 2, 4, 8, 16, 32, 64}) {
+                new Runner(new OptionsBuilder()
+                        .include(ParallelFillJMH.class.getName())
+                        .threads(threads)
+                        .result(String.format("%s_%s_%dthreads.json",
+                                DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
+                                ParallelFillJMH.class.getSimpleName(), threads))
+                        .build()).run();
+            }
+            return;
+        }
         Options opt = new OptionsBuilder()
-                .include(RandomNumberGeneratorsJMH.class.getName())
+                .include(RandomNumberGeneratorsJMH.class.getName() + "\\.\\w+$") //not the nested ParallelFillJMH
                 .result(String.format("%s_%s.json",
                         DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
                         RandomNumberGeneratorsJMH.class.getSimpleName()))
@@ -0,0 +1,629 @@
+package de.frank.jmh.algorithms;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import de.frank.impl.jaxb.CachedJaxbXmlMapper;
+import de.frank.jmh.model.HierarchicalMockModel;
+import de.frank.jmh.model.HierarchicalMockModel.ModelLevel1;
+import de.frank.jmh.model.HierarchicalMockModel.ModelLevel2;
+import de.frank.jmh.model.HierarchicalMockModel.ModelLevel3;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Results:
+/*--
+Q: How do i run this benchmark?
+A: run the main method - GCProfiler included (gc.alloc.rate.norm = bytes/op). The setup of every fork verifies all
+round trips and prints the encoded size per library for its tree size.
+
+Q: DeepCopyJMH already runs most of these libraries - why another benchmark?
+A: DeepCopyJMH measures copies (some libraries copy without ever producing bytes, e.g. kryo.copy() or jackson's
+TokenBuffer). Here every library has to produce the wire bytes and parse them back - what a service pays per
+request/response - for trees from ~100 to ~100k nodes.
+
+Q: "new" vs "reuse"?
+A: *_new allocates the output buffer(s) per op, as most code does (toByteArray(), writeValueAsBytes(), new Output()).
+   *_reuse writes into a buffer owned by the thread (benchmark state is Scope.Thread) and parses straight out of it:
+   - protobuf: one byte[] + the int[] of pre-computed nested message sizes
+   - protostuff: LinkedBuffer + ByteArrayOutputStream
+   - kryo: Output/Input
+   - jackson smile/cbor and jaxb: ByteArrayOutputStream (jackson recycles its internal buffers on its own)
+   Expect reuse to matter most for the small trees - for the big ones the decoded model dominates bytes/op.
+
+Q: protobuf "generated schema"?
+A: this repo has no protoc step. ModelProtoCodec is what protoc would generate for the schema below - fields read and
+written directly with CodedInputStream/CodedOutputStream, nested sizes computed once per encode:
+
+  message DateTime  { int64 seconds = 1; int32 nanos = 2; sint32 offset_seconds = 3; }
+  message Level3    { string name = 1; int32 a_int = 2; double a_double = 3; DateTime a_date = 4; }
+  message Level2    { ...as Level3...;  repeated Level3 sub_types = 5; }
+  message Level1    { ...as Level3...;  repeated Level2 sub_types = 5; }
+  message Root      { string name = 1;  repeated Level1 sub_types = 2; }
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = "--add-opens=java.base/java.time=ALL-UNNAMED") //protostuff RuntimeSchema reflects into java.time
+@State(Scope.Thread)
+public class SerializationRoundTripJMH {
+
+    static final Class<HierarchicalMockModel> MODEL_CLASS = HierarchicalMockModel.class;
+
+    //level1 x level2 x level3 nodes
+    @Param({"1x10x10", "10x10x10", "100x10x10", "100x100x10"})
+    public String tree;
+
+    HierarchicalMockModel model;
+
+    ModelProtoCodec protoCodec;
+
+    Schema<HierarchicalMockModel> protostuffSchema;
+    LinkedBuffer protostuffBuffer;
+
+    Kryo kryo;
+    Output kryoOutput;
+    Input kryoInput;
+
+    ObjectReader smileReader;
+    ObjectWriter smileWriter;
+    ObjectReader cborReader;
+    ObjectWriter cborWriter;
+
+    ReusableByteArrayOutputStream out;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SerializationRoundTripJMH.class.getName())
+                .resultFormat(ResultFormatType.JSON)
+                .result(String.format("%s_%s.json",
+                        DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
+                        SerializationRoundTripJMH.class.getSimpleName()))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() {
+        int[] size = Arrays.stream(tree.split("x")).mapToInt(Integer::parseInt).toArray();
+        model = HierarchicalMockModel.newInstance(size[0], size[1], size[2]);
+
+        protoCodec = new ModelProtoCodec();
+
+        protostuffSchema = RuntimeSchema.getSchema(MODEL_CLASS);
+        protostuffBuffer = LinkedBuffer.allocate(4096);
+
+        kryo = newKryo();
+        kryoOutput = new Output(4096, -1);
+        kryoInput = new Input();
+
+        ObjectMapper smile = SmileMapper.builder().addModule(new JavaTimeModule()).build();
+        smileReader = smile.readerFor(MODEL_CLASS);
+        smileWriter = smile.writerFor(MODEL_CLASS);
+        ObjectMapper cbor = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+        cborReader = cbor.readerFor(MODEL_CLASS);
+        cborWriter = cbor.writerFor(MODEL_CLASS);
+
+        out = new ReusableByteArrayOutputStream(4096);
+
+        verifyRoundTrips();
+        System.out.printf("%nencoded size tree %s:%n", tree);
+        encodedSizes().forEach((lib, bytes) -> System.out.printf("  %-11s %,12d bytes%n", lib, bytes));
+    }
+
+    private static Kryo newKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        //registered classes are written as a varint id instead of the class name
+        kryo.register(HierarchicalMockModel.class);
+        kryo.register(ModelLevel1.class);
+        kryo.register(ModelLevel2.class);
+        kryo.register(ModelLevel3.class);
+        kryo.register(ArrayList.class);
+        return kryo;
+    }
+
+    private void verifyRoundTrips() {
+        try {
+            List<HierarchicalMockModel> results = List.of(
+                    protobuf_new(), protobuf_reuse(),
+                    protostuff_new(), protostuff_reuse(),
+                    kryo_new(), kryo_reuse(),
+                    jacksonSmile_new(), jacksonSmile_reuse(),
+                    jacksonCbor_new(), jacksonCbor_reuse(),
+                    jaxb_new(), jaxb_reuse());
+            for (int i = 0; i < results.size(); i++) {
+                if (!model.equals(results.get(i))) {
+                    throw new IllegalStateException("round trip #" + i + " does not reproduce the model - tree " + tree);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    Map<String, Integer> encodedSizes() {
+        try {
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            sizes.put("protobuf", protoCodec.toByteArray(model).length);
+            sizes.put("protostuff", ProtostuffIOUtil.toByteArray(model, protostuffSchema, LinkedBuffer.allocate(4096)).length);
+            Output output = new Output(4096, -1);
+            kryo.writeObject(output, model);
+            sizes.put("kryo", output.position());
+            sizes.put("smile", smileWriter.writeValueAsBytes(model).length);
+            sizes.put("cbor", cborWriter.writeValueAsBytes(model).length);
+            sizes.put("jaxb (xml)", CachedJaxbXmlMapper.toXMLBytes(model).length);
+            return sizes;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //==========================================
+    // Benchmarks
+    //==========================================
+
+    @Benchmark
+    public HierarchicalMockModel protobuf_new() throws IOException {
+        byte[] bytes = protoCodec.toByteArray(model);
+        return ModelProtoCodec.parseFrom(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public HierarchicalMockModel protobuf_reuse() throws IOException {
+        int length = protoCodec.encode(model);
+        return ModelProtoCodec.parseFrom(protoCodec.buffer(), 0, length);
+    }
+
+    @Benchmark
+    public HierarchicalMockModel protostuff_new() {
+        byte[] bytes = ProtostuffIOUtil.toByteArray(model, protostuffSchema, LinkedBuffer.allocate(512));
+        HierarchicalMockModel result = protostuffSchema.newMessage();
+        ProtostuffIOUtil.mergeFrom(bytes, result, protostuffSchema);
+        return result;
+    }
+
+    @Benchmark
+    public HierarchicalMockModel protostuff_reuse() throws IOException {
+        out.reset();
+        try {
+            ProtostuffIOUtil.writeTo(out, model, protostuffSchema, protostuffBuffer);
+        } finally {
+            protostuffBuffer.clear();
+        }
+        HierarchicalMockModel result = protostuffSchema.newMessage();
+        ProtostuffIOUtil.mergeFrom(out.buffer(), 0, out.size(), result, protostuffSchema);
+        return result;
+    }
+
+    @Benchmark
+    public HierarchicalMockModel kryo_new() {
+        Output output = new Output(4096, -1);
+        kryo.writeObject(output, model);
+        return kryo.readObject(new Input(output.toBytes()), MODEL_CLASS);
+    }
+
+    @Benchmark
+    public HierarchicalMockModel kryo_reuse() {
+        kryoOutput.reset();
+        kryo.writeObject(kryoOutput, model);
+        kryoInput.setBuffer(kryoOutput.getBuffer(), 0, kryoOutput.position());
+        return kryo.readObject(kryoInput, MODEL_CLASS);
+    }
+
+    @Benchmark
+    public HierarchicalMockModel jacksonSmile_new() throws IOException {
+        return smileReader.readValue(smileWriter.writeValueAsBytes(model));
+    }
+
+    @Benchmark
+    public HierarchicalMockModel jacksonSmile_reuse() throws IOException {
+        out.reset();
+        smileWriter.writeValue(out, model);
+        return smileReader.readValue(out.buffer(), 0, out.size());
+    }
+
+    @Benchmark
+    public HierarchicalMockModel jacksonCbor_new() throws IOException {
+        return cborReader.readValue(cborWriter.writeValueAsBytes(model));
+    }
+
+    @Benchmark
+    public HierarchicalMockModel jacksonCbor_reuse() throws IOException {
+        out.reset();
+        cborWriter.writeValue(out, model);
+        return cborReader.readValue(out.buffer(), 0, out.size());
+    }
+
+    @Benchmark
+    public HierarchicalMockModel jaxb_new() {
+        return CachedJaxbXmlMapper.formXml(CachedJaxbXmlMapper.toXMLBytes(model), MODEL_CLASS);
+    }
+
+    @Benchmark
+    public HierarchicalMockModel jaxb_reuse() {
+        out.reset();
+        CachedJaxbXmlMapper.toXML(model, out);
+        return CachedJaxbXmlMapper.fromXML(new ByteArrayInputStream(out.buffer(), 0, out.size()), MODEL_CLASS);
+    }
+
+    //==========================================
+    // Support stuff
+    //==========================================
+
+    /**
+     * ByteArrayOutputStream which exposes its buffer - reset() keeps the (grown) array for the next op.
+     */
+    static final class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+        ReusableByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    /**
+     * Protobuf wire format codec for {@link HierarchicalMockModel} - the hand written equivalent of protoc generated
+     * writeTo()/getSerializedSize()/parseFrom() for the schema in the header of this file.
+     * <p>
+     * Generated messages memoize their size per instance. The model has no such field, so encode() computes all nested
+     * message sizes in one pass into an int[] (pre-order, the same order write() consumes them) - the sizes of a
+     * length-delimited message must be known before its content is written.
+     * <p>
+     * Not thread safe - one instance per thread.
+     */
+    public static final class ModelProtoCodec {
+        private static final int LENGTH_DELIMITED = WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+        //Root
+        private static final int ROOT_NAME = 1;
+        private static final int ROOT_SUB_TYPES = 2;
+        //Level1..3
+        private static final int NAME = 1;
+        private static final int A_INT = 2;
+        private static final int A_DOUBLE = 3;
+        private static final int A_DATE = 4;
+        private static final int SUB_TYPES = 5;
+        //DateTime
+        private static final int SECONDS = 1;
+        private static final int NANOS = 2;
+        private static final int OFFSET_SECONDS = 3;
+
+        private static final int TAG_ROOT_NAME = ROOT_NAME << 3 | LENGTH_DELIMITED;
+        private static final int TAG_ROOT_SUB_TYPES = ROOT_SUB_TYPES << 3 | LENGTH_DELIMITED;
+        private static final int TAG_NAME = NAME << 3 | LENGTH_DELIMITED;
+        private static final int TAG_A_INT = A_INT << 3 | WireFormat.WIRETYPE_VARINT;
+        private static final int TAG_A_DOUBLE = A_DOUBLE << 3 | WireFormat.WIRETYPE_FIXED64;
+        private static final int TAG_A_DATE = A_DATE << 3 | LENGTH_DELIMITED;
+        private static final int TAG_SUB_TYPES = SUB_TYPES << 3 | LENGTH_DELIMITED;
+        private static final int TAG_SECONDS = SECONDS << 3 | WireFormat.WIRETYPE_VARINT;
+        private static final int TAG_NANOS = NANOS << 3 | WireFormat.WIRETYPE_VARINT;
+        private static final int TAG_OFFSET_SECONDS = OFFSET_SECONDS << 3 | WireFormat.WIRETYPE_VARINT;
+
+        private int[] sizes = new int[256];
+        private int sizeCount;
+        private int sizeCursor;
+        private byte[] buffer = new byte[4096];
+
+        /**
+         * @return the encoded model in a new array
+         */
+        public byte[] toByteArray(HierarchicalMockModel model) throws IOException {
+            byte[] bytes = new byte[computeSizes(model)];
+            CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+            write(model, output);
+            output.checkNoSpaceLeft();
+            return bytes;
+        }
+
+        /**
+         * Encodes into this codec's buffer - valid until the next call.
+         *
+         * @return number of bytes written to {@link #buffer()}
+         */
+        public int encode(HierarchicalMockModel model) throws IOException {
+            int size = computeSizes(model);
+            if (buffer.length < size) {
+                buffer = new byte[Math.max(size, buffer.length * 2)];
+            }
+            CodedOutputStream output = CodedOutputStream.newInstance(buffer, 0, size);
+            write(model, output);
+            output.checkNoSpaceLeft();
+            return size;
+        }
+
+        public byte[] buffer() {
+            return buffer;
+        }
+
+        public static HierarchicalMockModel parseFrom(byte[] data, int offset, int length) throws IOException {
+            CodedInputStream in = CodedInputStream.newInstance(data, offset, length);
+            var root = new HierarchicalMockModel();
+            for (int tag; (tag = in.readTag()) != 0; ) {
+                switch (tag) {
+                    case TAG_ROOT_NAME -> root.setName(in.readStringRequireUtf8());
+                    case TAG_ROOT_SUB_TYPES -> root.getSubTypes().add(readLevel1(in));
+                    default -> in.skipField(tag);
+                }
+            }
+            return root;
+        }
+
+        //------------------------------------------
+        // sizes
+        //------------------------------------------
+
+        private int computeSizes(HierarchicalMockModel model) {
+            sizeCount = 0;
+            int size = model.getName() == null ? 0 : CodedOutputStream.computeStringSize(ROOT_NAME, model.getName());
+            if (model.getSubTypes() != null) {
+                for (ModelLevel1 level1 : model.getSubTypes()) {
+                    size += nestedSize(ROOT_SUB_TYPES, sizeOf(level1));
+                }
+            }
+            return size;
+        }
+
+        private int reserveSizeSlot() {
+            if (sizeCount == sizes.length) {
+                sizes = Arrays.copyOf(sizes, sizeCount * 2);
+            }
+            return sizeCount++;
+        }
+
+        private int sizeOf(ModelLevel1 node) {
+            int slot = reserveSizeSlot(); //parent before its children - the order write() consumes them
+            int size = fieldsSize(node.getName(), node.getAInt(), node.getADouble(), node.getADate());
+            if (node.getSubTypes() != null) {
+                for (ModelLevel2 child : node.getSubTypes()) {
+                    size += nestedSize(SUB_TYPES, sizeOf(child));
+                }
+            }
+            sizes[slot] = size;
+            return size;
+        }
+
+        private int sizeOf(ModelLevel2 node) {
+            int slot = reserveSizeSlot();
+            int size = fieldsSize(node.getName(), node.getAInt(), node.getADouble(), node.getADate());
+            if (node.getSubTypes() != null) {
+                for (ModelLevel3 child : node.getSubTypes()) {
+                    size += nestedSize(SUB_TYPES, sizeOf(child));
+                }
+            }
+            sizes[slot] = size;
+            return size;
+        }
+
+        private int sizeOf(ModelLevel3 node) {
+            int slot = reserveSizeSlot();
+            int size = fieldsSize(node.getName(), node.getAInt(), node.getADouble(), node.getADate());
+            sizes[slot] = size;
+            return size;
+        }
+
+        private static int nestedSize(int fieldNumber, int size) {
+            return CodedOutputStream.computeTagSize(fieldNumber) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+        }
+
+        private static int fieldsSize(String name, int aInt, double aDouble, OffsetDateTime aDate) {
+            int size = 0;
+            if (name != null) {
+                size += CodedOutputStream.computeStringSize(NAME, name);
+            }
+            if (aInt != 0) {
+                size += CodedOutputStream.computeInt32Size(A_INT, aInt);
+            }
+            if (Double.doubleToRawLongBits(aDouble) != 0) {
+                size += CodedOutputStream.computeDoubleSize(A_DOUBLE, aDouble);
+            }
+            if (aDate != null) {
+                size += nestedSize(A_DATE, dateSize(aDate));
+            }
+            return size;
+        }
+
+        private static int dateSize(OffsetDateTime date) {
+            int size = 0;
+            long seconds = date.toEpochSecond();
+            if (seconds != 0) {
+                size += CodedOutputStream.computeInt64Size(SECONDS, seconds);
+            }
+            if (date.getNano() != 0) {
+                size += CodedOutputStream.computeInt32Size(NANOS, date.getNano());
+            }
+            int offsetSeconds = date.getOffset().getTotalSeconds();
+            if (offsetSeconds != 0) {
+                size += CodedOutputStream.computeSInt32Size(OFFSET_SECONDS, offsetSeconds);
+            }
+            return size;
+        }
+
+        //------------------------------------------
+        // write
+        //------------------------------------------
+
+        private void write(HierarchicalMockModel model, CodedOutputStream output) throws IOException {
+            sizeCursor = 0;
+            if (model.getName() != null) {
+                output.writeString(ROOT_NAME, model.getName());
+            }
+            if (model.getSubTypes() != null) {
+                for (ModelLevel1 level1 : model.getSubTypes()) {
+                    writeNestedHeader(ROOT_SUB_TYPES, output);
+                    write(level1, output);
+                }
+            }
+        }
+
+        private void write(ModelLevel1 node, CodedOutputStream output) throws IOException {
+            writeFields(node.getName(), node.getAInt(), node.getADouble(), node.getADate(), output);
+            if (node.getSubTypes() != null) {
+                for (ModelLevel2 child : node.getSubTypes()) {
+                    writeNestedHeader(SUB_TYPES, output);
+                    write(child, output);
+                }
+            }
+        }
+
+        private void write(ModelLevel2 node, CodedOutputStream output) throws IOException {
+            writeFields(node.getName(), node.getAInt(), node.getADouble(), node.getADate(), output);
+            if (node.getSubTypes() != null) {
+                for (ModelLevel3 child : node.getSubTypes()) {
+                    writeNestedHeader(SUB_TYPES, output);
+                    writeFields(child.getName(), child.getAInt(), child.getADouble(), child.getADate(), output);
+                }
+            }
+        }
+
+        private void writeNestedHeader(int fieldNumber, CodedOutputStream output) throws IOException {
+            output.writeTag(fieldNumber, LENGTH_DELIMITED);
+            output.writeUInt32NoTag(sizes[sizeCursor++]);
+        }
+
+        private static void writeFields(String name, int aInt, double aDouble, OffsetDateTime aDate,
+                                        CodedOutputStream output) throws IOException {
+            if (name != null) {
+                output.writeString(NAME, name);
+            }
+            if (aInt != 0) {
+                output.writeInt32(A_INT, aInt);
+            }
+            if (Double.doubleToRawLongBits(aDouble) != 0) {
+                output.writeDouble(A_DOUBLE, aDouble);
+            }
+            if (aDate != null) {
+                output.writeTag(A_DATE, LENGTH_DELIMITED);
+                output.writeUInt32NoTag(dateSize(aDate));
+                long seconds = aDate.toEpochSecond();
+                if (seconds != 0) {
+                    output.writeInt64(SECONDS, seconds);
+                }
+                if (aDate.getNano() != 0) {
+                    output.writeInt32(NANOS, aDate.getNano());
+                }
+                int offsetSeconds = aDate.getOffset().getTotalSeconds();
+                if (offsetSeconds != 0) {
+                    output.writeSInt32(OFFSET_SECONDS, offsetSeconds);
+                }
+            }
+        }
+
+        //------------------------------------------
+        // read
+        //------------------------------------------
+
+        private static ModelLevel1 readLevel1(CodedInputStream in) throws IOException {
+            int oldLimit = in.pushLimit(in.readRawVarint32());
+            var node = new ModelLevel1();
+            for (int tag; (tag = in.readTag()) != 0; ) {
+                switch (tag) {
+                    case TAG_NAME -> node.setName(in.readStringRequireUtf8());
+                    case TAG_A_INT -> node.setAInt(in.readInt32());
+                    case TAG_A_DOUBLE -> node.setADouble(in.readDouble());
+                    case TAG_A_DATE -> node.setADate(readDate(in));
+                    case TAG_SUB_TYPES -> node.getSubTypes().add(readLevel2(in));
+                    default -> in.skipField(tag);
+                }
+            }
+            in.popLimit(oldLimit);
+            return node;
+        }
+
+        private static ModelLevel2 readLevel2(CodedInputStream in) throws IOException {
+            int oldLimit = in.pushLimit(in.readRawVarint32());
+            var node = new ModelLevel2();
+            for (int tag; (tag = in.readTag()) != 0; ) {
+                switch (tag) {
+                    case TAG_NAME -> node.setName(in.readStringRequireUtf8());
+                    case TAG_A_INT -> node.setAInt(in.readInt32());
+                    case TAG_A_DOUBLE -> node.setADouble(in.readDouble());
+                    case TAG_A_DATE -> node.setADate(readDate(in));
+                    case TAG_SUB_TYPES -> node.getSubTypes().add(readLevel3(in));
+                    default -> in.skipField(tag);
+                }
+            }
+            in.popLimit(oldLimit);
+            return node;
+        }
+
+        private static ModelLevel3 readLevel3(CodedInputStream in) throws IOException {
+            int oldLimit = in.pushLimit(in.readRawVarint32());
+            var node = new ModelLevel3();
+            for (int tag; (tag = in.readTag()) != 0; ) {
+                switch (tag) {
+                    case TAG_NAME -> node.setName(in.readStringRequireUtf8());
+                    case TAG_A_INT -> node.setAInt(in.readInt32());
+                    case TAG_A_DOUBLE -> node.setADouble(in.readDouble());
+                    case TAG_A_DATE -> node.setADate(readDate(in));
+                    default -> in.skipField(tag);
+                }
+            }
+            in.popLimit(oldLimit);
+            return node;
+        }
+
+        private static OffsetDateTime readDate(CodedInputStream in) throws IOException {
+            int oldLimit = in.pushLimit(in.readRawVarint32());
+            long seconds = 0;
+            int nanos = 0;
+            int offsetSeconds = 0;
+            for (int tag; (tag = in.readTag()) != 0; ) {
+                switch (tag) {
+                    case TAG_SECONDS -> seconds = in.readInt64();
+                    case TAG_NANOS -> nanos = in.readInt32();
+                    case TAG_OFFSET_SECONDS -> offsetSeconds = in.readSInt32();
+                    default -> in.skipField(tag);
+                }
+            }
+            in.popLimit(oldLimit);
+            return OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneOffset.ofTotalSeconds(offsetSeconds));
+        }
+    }
+}
@@ -7,10 +7,24 @@ import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
@@ -19,7 +33,7 @@ import java.util.concurrent.TimeUnit;
     This is a TOY implementation of a toy algorithm!
      - NOT complete nor good API design.
      - NOT general purpose -> focuses an generating random sentences for a trained markov model.
-     - NOT flexible -> only works for Bi-Grams not arbitrary N-Grams
+     - NOT flexible -> only the TransitionCounts/AliasMarkovChain path supports N-Grams, everything else is Bi-Grams only
      - NOT weighted - every transition is equally probable as edges are unique and not weighted
 
 
@@ -121,6 +135,8 @@ public class SimpleMarkovChainBenchmarkJMH {
 
     private static FlatDirectIndexingRunMarkovChain flatRunMarkovChain = new FlatDirectIndexingRunMarkovChain(markov);
 
+    private static AliasMarkovChain aliasMarkovChain = new AliasMarkovChain(TransitionCounts.from(markov), markov.dict);
+
     @Benchmark
     public void base(Blackhole b) {
         sb.setLength(0);//reset
@@ -160,6 +176,461 @@ public class SimpleMarkovChainBenchmarkJMH {
         b.consume(sb);
     }
 
+    @Benchmark
+    public void aliasMarkovChain(Blackhole b) {
+        sb.setLength(0);//reset
+        aliasMarkovChain.generate(sb, numberOfWords);
+        b.consume(sb);
+    }
+
+    /*
+     * The rainbow text is tiny - every transition was seen only a few times. Real corpora are large and the number of
+     * distinct transitions saturates quickly, while the number of samples keeps growing linearly with the corpus.
+     * MarkovChain (and both DirectIndexing chains) store every sample - including all duplicates - AliasMarkovChain
+     * only stores the distinct transitions.
+     *
+     * The corpus is synthesized by walking the rainbow model, so all sizes share the same vocabulary.
+     * Retained heap of each model is printed during setup.
+     * WARNING: the base MarkovChain @100M tokens holds ~100M boxed Integers -> needs a big heap.
+     */
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Threads(1)
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx16g"})
+    @Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @State(Scope.Thread)
+    public static class CorpusSizeJMH {
+
+        @Param({"10000", "1000000", "10000000", "100000000"})
+        private int corpusTokens;
+
+        private final StringBuilder sb = new StringBuilder(1014);
+
+        private MarkovChain markovChain;
+        private FlatDirectIndexingRunMarkovChain flatRunMarkovChain;
+        private AliasMarkovChain aliasMarkovChain;
+
+        @Setup
+        public void setup() {
+            int[] corpus = syntheticCorpus(SimpleMarkovChainBenchmarkJMH.aliasMarkovChain, corpusTokens);
+            this.markovChain = printRetainedHeap("MarkovChain", () -> MarkovChain.fromTokens(corpus, markov.dict));
+            this.flatRunMarkovChain = printRetainedHeap("FlatDirectIndexingRunMarkovChain", () -> new FlatDirectIndexingRunMarkovChain(markovChain));
+            this.aliasMarkovChain = printRetainedHeap("AliasMarkovChain", () -> new AliasMarkovChain(TransitionCounts.fromTokens(corpus), markov.dict));
+        }
+
+        @Benchmark
+        public void base(Blackhole b) {
+            sb.setLength(0);//reset
+            markovChain.generate(sb, 1000);
+            b.consume(sb);
+        }
+
+        @Benchmark
+        public void flatRunMarkovChain(Blackhole b) {
+            sb.setLength(0);//reset
+            flatRunMarkovChain.generate(sb, 1000);
+            b.consume(sb);
+        }
+
+        @Benchmark
+        public void aliasMarkovChain(Blackhole b) {
+            sb.setLength(0);//reset
+            aliasMarkovChain.generate(sb, 1000);
+            b.consume(sb);
+        }
+    }
+
+    /*
+     * Problem:
+     * MarkovChain.fromInput() needs the whole corpus as one String, splits it with String.split and builds the model on
+     * one thread - boxing every single sample. Fine for the rainbow text, hopeless for GB sized corpora.
+     *
+     * How:
+     *  - split the corpus file into chunks at line boundaries (every line starts in the start state, so lines are independent)
+     *  - each worker memory maps its chunk and tokenizes it (same rules as fromInput) into its OWN dictionary and
+     *    TransitionCounts -> no shared mutable state and no locks in the hot phase
+     *  - merge: build the global dictionary, remap every per-chunk dictIDX and sum up the counts
+     *  - the merged counts are turned into the FlatDirectIndexingRunMarkovChain (or AliasMarkovChain) layout
+     */
+    public static class ParallelMarkovTrainer {
+        private static final int NON_WORD = MarkovChainIF.NON_WORD;
+        private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE; //a MappedByteBuffer is int indexed
+
+        private final ExecutorService pool;
+        private final int chunks;
+
+        public static class Model {
+            public final TransitionCounts counts;
+            public final List<String> dict;
+
+            Model(TransitionCounts counts, List<String> dict) {
+                this.counts = counts;
+                this.dict = dict;
+            }
+        }
+
+        /**
+         * @param pool   executes the per chunk tokenization
+         * @param chunks number of chunks - a few more than threads in the pool compensates for unequal chunks
+         */
+        public ParallelMarkovTrainer(ExecutorService pool, int chunks) {
+            this.pool = pool;
+            this.chunks = chunks;
+        }
+
+        public FlatDirectIndexingRunMarkovChain trainFlat(Path corpus) throws IOException {
+            Model model = train(corpus);
+            return new FlatDirectIndexingRunMarkovChain(model.counts, model.dict);
+        }
+
+        public Model train(Path corpus) throws IOException {
+            try (FileChannel channel = FileChannel.open(corpus, StandardOpenOption.READ)) {
+                long size = channel.size();
+                int numChunks = (int) Math.max(chunks, size / MAX_CHUNK_SIZE + 1);
+
+                List<Future<Model>> partials = new ArrayList<>(numChunks);
+                long chunkStart = 0;
+                for (int i = 1; i <= numChunks && chunkStart < size; i++) {
+                    long chunkEnd = i == numChunks ? size : nextLineStart(channel, size * i / numChunks);
+                    if (chunkEnd <= chunkStart) {
+                        continue; //a single line spans multiple chunks
+                    }
+                    MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart);
+                    partials.add(pool.submit(() -> tokenize(chunk)));
+                    chunkStart = chunkEnd;
+                }
+                return merge(partials);
+            }
+        }
+
+        private static Model merge(List<Future<Model>> partials) throws IOException {
+            TransitionCounts merged = new TransitionCounts();
+            List<String> dict = new ArrayList<>();
+            Map<String, Integer> wordLookup = new HashMap<>();
+            for (Future<Model> future : partials) {
+                Model partial;
+                try {
+                    partial = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+                }
+                int[] dictRemap = new int[partial.dict.size()];
+                for (int i = 0; i < dictRemap.length; i++) {
+                    dictRemap[i] = wordLookup.computeIfAbsent(partial.dict.get(i), x -> MarkovChain.insertToDict(dict, x));
+                }
+                merged.addAll(partial.counts, dictRemap);
+            }
+            return new Model(merged, dict);
+        }
+
+        private static long nextLineStart(FileChannel channel, long position) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(4096);
+            while (channel.read(buf.clear(), position) > 0) {
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    position++;
+                    if (buf.get() == '\n') {
+                        return position;
+                    }
+                }
+            }
+            return channel.size();
+        }
+
+        static Model tokenize(ByteBuffer chunk) {
+            TransitionCounts counts = new TransitionCounts();
+            List<String> dict = new ArrayList<>();
+            Map<String, Integer> wordLookup = new HashMap<>();
+            byte[] lineBuf = new byte[1024];
+            while (chunk.hasRemaining()) {
+                int len = 0;
+                while (chunk.hasRemaining()) {
+                    byte b = chunk.get();
+                    if (b == '\n') {
+                        break;
+                    }
+                    if (len == lineBuf.length) {
+                        lineBuf = Arrays.copyOf(lineBuf, len * 2);
+                    }
+                    lineBuf[len++] = b;
+                }
+                tokenizeLine(new String(lineBuf, 0, len, StandardCharsets.UTF_8), counts, dict, wordLookup);
+            }
+            return new Model(counts, dict);
+        }
+
+        /**
+         * Same tokenizer rules as MarkovChain.fromInput() - without String.split.
+         */
+        static void tokenizeLine(String line, TransitionCounts counts, List<String> dict, Map<String, Integer> wordLookup) {
+            if (line.trim().isEmpty()) {
+                return;
+            }
+            int first = NON_WORD;
+            int second = NON_WORD;
+            int wordStart = 0;
+            while (wordStart <= line.length()) {
+                int wordEnd = line.indexOf(' ', wordStart);
+                if (wordEnd < 0) {
+                    wordEnd = line.length();
+                }
+                String cleanedWord = line.substring(wordStart, wordEnd).trim().toLowerCase();
+                wordStart = wordEnd + 1;
+                if (cleanedWord.isEmpty()) {
+                    continue;
+                }
+
+                //Treat all non letter and digt as tokens
+                if (!Character.isLetterOrDigit(cleanedWord.charAt(cleanedWord.length() - 1))) {
+                    String extraToken = Character.toString(cleanedWord.charAt(cleanedWord.length() - 1));
+                    cleanedWord = cleanedWord.substring(0, cleanedWord.length() - 1);
+                    int wordIDX = wordLookup.computeIfAbsent(extraToken, x -> MarkovChain.insertToDict(dict, x));
+                    counts.addSample(first, second, wordIDX);
+                    first = second;
+                    second = wordIDX;
+                }
+                //Lookup word IDX
+                int wordIDX = wordLookup.computeIfAbsent(cleanedWord, x -> MarkovChain.insertToDict(dict, x));
+                counts.addSample(first, second, wordIDX);
+                first = second;
+                second = wordIDX;
+            }
+            counts.addSample(first, second, NON_WORD);//terminal state
+        }
+    }
+
+    /*
+     * Training time of the single threaded MarkovChain.fromInput() vs the ParallelMarkovTrainer, both producing a
+     * FlatDirectIndexingRunMarkovChain. The corpus file is synthesized from the rainbow model.
+     * singleThreaded_fromInput only depends on corpusTokens - JMH does not multiply it with the threads param.
+     */
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx16g"})
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public static class TrainingJMH {
+
+        @State(Scope.Benchmark)
+        public static class Corpus {
+            @Param({"1000000", "10000000", "100000000"})
+            private int corpusTokens;
+
+            private Path file;
+
+            @Setup
+            public void setup() throws IOException {
+                file = writeSyntheticCorpusFile(corpusTokens);
+                System.out.printf("%ncorpus file: %s %,d bytes%n", file, Files.size(file));
+            }
+
+            @TearDown
+            public void tearDown() throws IOException {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        @State(Scope.Benchmark)
+        public static class Pool {
+            @Param({"1", "2", "4", "8", "16", "32"})
+            private int threads;
+
+            private ExecutorService pool;
+
+            @Setup
+            public void setup() {
+                pool = Executors.newFixedThreadPool(threads);
+            }
+
+            @TearDown
+            public void tearDown() {
+                pool.shutdown();
+            }
+        }
+
+        @Benchmark
+        public FlatDirectIndexingRunMarkovChain singleThreaded_fromInput(Corpus corpus) throws IOException {
+            return new FlatDirectIndexingRunMarkovChain(MarkovChain.fromInput(Files.readString(corpus.file)));
+        }
+
+        @Benchmark
+        public FlatDirectIndexingRunMarkovChain parallelTrainer(Corpus corpus, Pool pool) throws IOException {
+            return new ParallelMarkovTrainer(pool.pool, pool.threads * 4).trainFlat(corpus.file);
+        }
+    }
+
+    /*
+     * Higher order N-grams: state explosion vs. key representation.
+     * Same 1M token synthetic corpus (from the BiGram rainbow model - so higher orders mostly add states, not
+     * creativity), trained with order 2..5.
+     *  - packed: all (dictIDX+1) of the N-gram folded into one long key (small dictionary -> fits up to order 5)
+     *  - hashed: N-gram words hashed and compared against the flat words array (any dictionary size)
+     * Order 2 is always packed - 2x32bit fit regardless of the dictionary.
+     * The retained heap of each model is printed during setup.
+     */
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @State(Scope.Thread)//owns the shared result buffer
+    public static class NGramOrderJMH {
+        @Param({"2", "3", "4", "5"})
+        private int order;
+        @Param({"packed", "hashed"})
+        private String stateKeys;
+
+        private int[] corpus;
+        private int maxDictIdx;
+        private AliasMarkovChain model;
+        //shared result buffer - we dont want to measure the noise of crating new buffers
+        private final StringBuilder sb = new StringBuilder(1014);
+
+        @Setup
+        public void setup() {
+            corpus = syntheticCorpus(aliasMarkovChain, 1_000_000);
+            maxDictIdx = "packed".equals(stateKeys) ? aliasMarkovChain.dict.size() - 1 : Integer.MAX_VALUE;
+            TransitionCounts counts = TransitionCounts.fromTokens(corpus, order, maxDictIdx);
+            System.out.printf("%norder %d %s: %,d states, %,d edges", order,
+                    counts.states.isPacked() ? "packed" : "hashed", counts.size(), counts.edgeCounts.size());
+            model = printRetainedHeap("AliasMarkovChain order " + order,
+                    () -> new AliasMarkovChain(counts, aliasMarkovChain.dict));
+        }
+
+        @Benchmark
+        public StringBuilder generate() {
+            sb.setLength(0);//reset
+            model.generate(sb, 1000);
+            return sb;
+        }
+
+        @Benchmark
+        @OutputTimeUnit(TimeUnit.MILLISECONDS)
+        public TransitionCounts train() {
+            return TransitionCounts.fromTokens(corpus, order, maxDictIdx);
+        }
+    }
+
+    /*
+     * GB-scale text generation: StringBuilder vs streaming to a channel.
+     * Every op produces (at least) 1 MiB of UTF-8 text and writes it to a sink -> ops/s == MiB/s.
+     *  - stringBuilder: sentences via AliasMarkovChain.generate(StringBuilder) into a growing StringBuilder, then
+     *                   encoded with getBytes(UTF_8) and written (whole output in memory, several times)
+     *  - streaming:     StreamingMarkovGenerator - pre-encoded dictionary words, one reusable 64k direct buffer
+     * The sink discards the bytes - we measure generation and encoding, not the disk.
+     */
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Fork(1)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @State(Scope.Thread)
+    public static class StreamingJMH {
+        private static final int OP_BYTES = 1 << 20;
+
+        private final WritableByteChannel sink = new NullChannel();
+        private final StreamingMarkovGenerator streamingGenerator = new StreamingMarkovGenerator(aliasMarkovChain, 1 << 16);
+
+        @Benchmark
+        public long stringBuilder() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            while (sb.length() < OP_BYTES) { //mostly ascii corpus - chars ~ bytes
+                aliasMarkovChain.generate(sb, Integer.MAX_VALUE);//until end of sentence
+                sb.append('\n');
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return sink.write(bytes);
+        }
+
+        @Benchmark
+        public long streaming() throws IOException {
+            return streamingGenerator.generate(sink, OP_BYTES);
+        }
+
+        static class NullChannel implements WritableByteChannel {
+            @Override
+            public int write(ByteBuffer src) {
+                int bytes = src.remaining();
+                src.position(src.limit());
+                return bytes;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        }
+    }
+
+    /**
+     * Writes lines generated by the rainbow model until roughly the requested number of tokens is reached.
+     */
+    static Path writeSyntheticCorpusFile(int tokens) throws IOException {
+        Path file = Files.createTempFile(SimpleMarkovChainBenchmarkJMH.class.getSimpleName(), ".txt");
+        StringBuilder line = new StringBuilder(1024);
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long written = 0;
+            while (written < tokens) {
+                line.setLength(0);
+                aliasMarkovChain.generate(line, Integer.MAX_VALUE);//until end of sentence
+                for (int i = 0; i < line.length(); i++) {
+                    if (line.charAt(i) == ' ') {
+                        written++;
+                    }
+                }
+                w.append(line).append('\n');
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Walks the given model to produce a corpus of dictIDX's. Lines (sentences) are terminated by NON_WORD - the last
+     * token is always NON_WORD, so the corpus does not end mid-sentence.
+     */
+    static int[] syntheticCorpus(AliasMarkovChain model, int tokens) {
+        int[] corpus = new int[tokens];
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        int curState = model.startState;
+        for (int i = 0; i < tokens - 1; i++) {
+            int next = model.nextState(curState, r);
+            if (next == MarkovChainIF.NON_WORD) {
+                corpus[i] = MarkovChainIF.NON_WORD;
+                curState = model.startState;
+            } else {
+                corpus[i] = model.stateDictIdx[next];
+                curState = next;
+            }
+        }
+        if (tokens > 0) {
+            corpus[tokens - 1] = MarkovChainIF.NON_WORD;
+        }
+        return corpus;
+    }
+
+    /**
+     * Poor man's retained size: used heap after gc, before and after the construction.
+     * (JOL's GraphLayout would be exact, but walking 100M objects takes forever)
+     */
+    static <T> T printRetainedHeap(String name, java.util.function.Supplier<T> constructor) {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long before = rt.totalMemory() - rt.freeMemory();
+        T t = constructor.get();
+        System.gc();
+        long after = rt.totalMemory() - rt.freeMemory();
+        System.out.printf("%n%-35s retained heap: %,15d bytes%n", name, after - before);
+        return t;
+    }
+
     //###################################################
 
 
@@ -197,6 +668,9 @@ public class SimpleMarkovChainBenchmarkJMH {
                 BiGram mutableState = new BiGram(NON_WORD, NON_WORD);//start state
                 for (String word : line.split(WHITE_SPACE)) {
                     String cleanedWord = word.trim().toLowerCase();
+                    if (cleanedWord.isEmpty()) {
+                        continue; //double whitespace
+                    }
 
                     //Treat all non letter and digt as tokens
                     if (!Character.isLetterOrDigit(cleanedWord.charAt(cleanedWord.length() - 1))) {
@@ -216,6 +690,25 @@ public class SimpleMarkovChainBenchmarkJMH {
             return new MarkovChain(stateTrans, dict);
         }
 
+        /**
+         * @param tokens dictIDX's of an already tokenized corpus - lines are terminated by NON_WORD
+         * @param dict   the dictionary used to tokenize
+         */
+        public static MarkovChain fromTokens(int[] tokens, List<String> dict) {
+            Map<BiGram, List<Integer>> stateTrans = new HashMap<>();
+            BiGram mutableState = new BiGram(NON_WORD, NON_WORD);//start state
+            for (int wordIDX : tokens) {
+                addSample(stateTrans, mutableState, wordIDX);
+                if (wordIDX == NON_WORD) {
+                    mutableState = new BiGram(NON_WORD, NON_WORD);//terminal state reached -> new line
+                }
+            }
+            if (tokens.length > 0 && tokens[tokens.length - 1] != NON_WORD) {
+                addSample(stateTrans, mutableState, NON_WORD);//terminal state of an unterminated last line
+            }
+            return new MarkovChain(stateTrans, dict);
+        }
+
         private static void addSample(Map<BiGram, List<Integer>> stateTrans, BiGram mutableState, Integer wordIDX) {
             //get current state
             List<Integer> transitions = stateTrans.get(mutableState);
@@ -448,6 +941,39 @@ public class SimpleMarkovChainBenchmarkJMH {
 
         }
 
+        /**
+         * Same layout, but built from (merged) TransitionCounts: stateIDX's are taken over as they are and every
+         * transition is repeated count times.
+         */
+        public DirectIndexingRunMarkovChain(TransitionCounts counts, List<String> dict) {
+            this.dict = dict;
+            State[] states = new State[counts.size()];
+
+            int[] samplesPerState = new int[states.length];
+            counts.edgeCounts.forEach((edge, count) -> samplesPerState[TransitionCounts.high(edge)] += count);
+            for (int i = 0; i < states.length; i++) {
+                State s = new State();
+                s.dictIDX = counts.dictIdx(i);
+                s.transitionIndexes = new int[samplesPerState[i]];
+                states[i] = s;
+            }
+
+            int[] writePos = new int[states.length];
+            counts.edgeCounts.forEach((edge, count) -> {
+                int stateIDX = TransitionCounts.high(edge);
+                int next = TransitionCounts.low(edge);
+                //BiGram<first,second> + next -> BiGram<second,next>
+                int nextStateIDX = next == NON_WORD ? NON_WORD : counts.successor(stateIDX, next);
+                int from = writePos[stateIDX];
+                writePos[stateIDX] += count;
+                Arrays.fill(states[stateIDX].transitionIndexes, from, from + count, nextStateIDX);
+            });
+
+            this.states = states;
+            this.startSateIDX = counts.startState();
+            this.startState = states[startSateIDX];
+        }
+
         @Override
         public void generate(StringBuilder sb, int numberOfWords) {
             ThreadLocalRandom r = ThreadLocalRandom.current();
@@ -513,10 +1039,25 @@ public class SimpleMarkovChainBenchmarkJMH {
 
         public FlatDirectIndexingRunMarkovChain(MarkovChain chain) {
             super(chain);
+            int[] stateOffsets = new int[states.length];
+            this.stateTrans = flatten(states, stateOffsets);
+            this.stateTransStartState = stateOffsets[super.startSateIDX];
+        }
+
+        public FlatDirectIndexingRunMarkovChain(TransitionCounts counts, List<String> dict) {
+            super(counts, dict);
+            int[] stateOffsets = new int[states.length];
+            this.stateTrans = flatten(states, stateOffsets);
+            this.stateTransStartState = stateOffsets[super.startSateIDX];
+        }
+
+        /**
+         * @param stateOffsets out: stateIDX -> offset of the state inside the returned flat array
+         */
+        private static int[] flatten(State[] states, int[] stateOffsets) {
             //flatMap states <dictIDX,len,trans1,trans2,...><dictIDX,len,trans1,trans2,...>...
             int len = Arrays.stream(states).mapToInt(x -> x.transitionIndexes.length + 2).sum();
             int[] stateTrans = new int[len];
-            int[] stateOffsets = new int[states.length];
             int curIDX = 0;
             for (int i = 0; i < states.length; i++) {
                 stateOffsets[i] = curIDX;
@@ -539,8 +1080,7 @@ public class SimpleMarkovChainBenchmarkJMH {
                     }
                 }
             }
-            this.stateTrans = stateTrans;
-            this.stateTransStartState = stateOffsets[super.startSateIDX];
+            return stateTrans;
         }
 
         @Override
@@ -582,6 +1122,657 @@ public class SimpleMarkovChainBenchmarkJMH {
         }
     }
 
+    /*
+     * Hypothesis:
+     * All previous implementations store every single sample - including all duplicates. For the rainbow text this does
+     * not matter, but for large corpora memory grows linearly with the corpus while the number of distinct transitions
+     * saturates. Picking a random element of a list with duplicates is a weighted random choice - which can be done
+     * on the distinct transitions as well.
+     *
+     * How:
+     * Store each state's successors only once together with Walker alias tables (Vose's construction):
+     *  - pick a random column k of the state's n successors and a random float u
+     *  - u < aliasProb[k] ? successor[k] : successor[aliasIdx[k]]
+     *  => O(1) sampling with two random numbers, independent of how often a transition was seen during training.
+     *
+     * Layout: struct of arrays, no objects per state:
+     *  stateDictIdx[state]           dictIDX of the word emitted when entering the state (BiGram.second / last word of the N-gram)
+     *  succOffset[state]..[state+1]  range of the state's successors in succState, aliasProb and aliasIdx
+     *  succState[]                   distinct successor stateIDX (or NON_WORD)
+     *  aliasProb[]                   probability to keep column k
+     *  aliasIdx[]                    alternative column (relative to succOffset[state]) if column k is not kept
+     *
+     * Caveat: built from TransitionCounts and not modifiable - structure intended for generate() execution.
+     */
+    public static class AliasMarkovChain implements MarkovChainIF {
+        protected final int[] stateDictIdx;
+        protected final int[] succOffset;
+        protected final int[] succState;
+        protected final float[] aliasProb;
+        protected final int[] aliasIdx;
+        protected final int startState;
+        protected final List<String> dict;
+
+        public AliasMarkovChain(TransitionCounts counts, List<String> dict) {
+            this.dict = dict;
+            int states = counts.size();
+            this.stateDictIdx = new int[states];
+            for (int i = 0; i < states; i++) {
+                stateDictIdx[i] = counts.dictIdx(i);
+            }
+
+            //1st pass: number of distinct successors per state -> offsets
+            int[] succOffset = new int[states + 1];
+            counts.edgeCounts.forEach((edge, count) -> succOffset[TransitionCounts.high(edge) + 1]++);
+            int maxSuccessors = 0;
+            for (int i = 0; i < states; i++) {
+                maxSuccessors = Math.max(maxSuccessors, succOffset[i + 1]);
+                succOffset[i + 1] += succOffset[i];
+            }
+
+            //2nd pass: resolve successor states and collect their counts
+            int edges = succOffset[states];
+            int[] succState = new int[edges];
+            int[] succCount = new int[edges];
+            int[] writePos = Arrays.copyOf(succOffset, states);
+            counts.edgeCounts.forEach((edge, count) -> {
+                int state = TransitionCounts.high(edge);
+                int next = TransitionCounts.low(edge);
+                int pos = writePos[state]++;
+                //N-gram<w1,..,wN> + next -> N-gram<w2,..,wN,next>
+                succState[pos] = next == NON_WORD ? NON_WORD : counts.successor(state, next);
+                succCount[pos] = count;
+            });
+
+            //3rd pass: alias tables per state
+            this.aliasProb = new float[edges];
+            this.aliasIdx = new int[edges];
+            double[] scaled = new double[maxSuccessors];
+            int[] small = new int[maxSuccessors];
+            int[] large = new int[maxSuccessors];
+            for (int state = 0; state < states; state++) {
+                buildAliasTable(succCount, succOffset[state], succOffset[state + 1], aliasProb, aliasIdx, scaled, small, large);
+            }
+
+            this.succOffset = succOffset;
+            this.succState = succState;
+            this.startState = counts.startState();
+        }
+
+        /**
+         * Vose's alias method for the weights in counts[from..to)
+         */
+        private static void buildAliasTable(int[] counts, int from, int to, float[] prob, int[] alias,
+                                            double[] scaled, int[] small, int[] large) {
+            int n = to - from;
+            long total = 0;
+            for (int i = from; i < to; i++) {
+                total += counts[i];
+            }
+
+            int smallSize = 0;
+            int largeSize = 0;
+            for (int k = 0; k < n; k++) {
+                scaled[k] = (double) counts[from + k] * n / total;
+                if (scaled[k] < 1.0) {
+                    small[smallSize++] = k;
+                } else {
+                    large[largeSize++] = k;
+                }
+            }
+            while (smallSize > 0 && largeSize > 0) {
+                int l = small[--smallSize];
+                int g = large[--largeSize];
+                prob[from + l] = (float) scaled[l];
+                alias[from + l] = g;
+                scaled[g] = (scaled[g] + scaled[l]) - 1.0;
+                if (scaled[g] < 1.0) {
+                    small[smallSize++] = g;
+                } else {
+                    large[largeSize++] = g;
+                }
+            }
+            //leftovers are 1.0 (modulo rounding errors)
+            while (largeSize > 0) {
+                int g = large[--largeSize];
+                prob[from + g] = 1f;
+                alias[from + g] = g;
+            }
+            while (smallSize > 0) {
+                int l = small[--smallSize];
+                prob[from + l] = 1f;
+                alias[from + l] = l;
+            }
+        }
+
+        int nextState(int state, ThreadLocalRandom r) {
+            int from = succOffset[state];
+            int n = succOffset[state + 1] - from;
+            if (n == 1) {
+                return succState[from]; //very common in natural language - save the random numbers
+            }
+            int k = r.nextInt(n);
+            int column = r.nextFloat() < aliasProb[from + k] ? k : aliasIdx[from + k];
+            return succState[from + column];
+        }
+
+        @Override
+        public void generate(StringBuilder sb, int numberOfWords) {
+            ThreadLocalRandom r = ThreadLocalRandom.current();
+            int curState = startState;
+            for (int i = 0; i < numberOfWords; i++) {
+                int nextState = nextState(curState, r);
+
+                if (nextState == NON_WORD) {
+                    break;
+                }
+                curState = nextState;
+                appendWord(sb, dict.get(stateDictIdx[curState]));
+            }
+        }
+
+        private void appendWord(StringBuilder sb, String word) {
+            //single token like ,.?!" - remove previous whitespace
+            if (word.length() == 1) {
+                sb.setLength(Math.max(0, sb.length() - 1));
+            }
+            sb.append(word);
+            sb.append(' ');
+        }
+    }
+
+
+    /**
+     * Streams sentences of an AliasMarkovChain as UTF-8 bytes to a WritableByteChannel (use
+     * Channels.newChannel(OutputStream) for streams).
+     * <ul>
+     * <li>every dictionary word is encoded to UTF-8 once - no per word String->byte conversion</li>
+     * <li>one reusable buffer - output size is unbounded, memory is not</li>
+     * <li>whitespace is written in front of a word if required, instead of appending it and undoing it with
+     * setLength() for single tokens like ,.?!"</li>
+     * </ul>
+     * Sentences are terminated by '\n' (no trailing whitespace).
+     * Caveat: not thread safe - one generator per thread.
+     */
+    public static class StreamingMarkovGenerator {
+        private static final int NON_WORD = MarkovChainIF.NON_WORD;
+
+        private final AliasMarkovChain model;
+        private final byte[][] wordBytes; //by dictIDX
+        private final boolean[] noSpaceBefore; //by dictIDX - single tokens like ,.?!"
+        private final ByteBuffer buf;
+        private final int maxWordBytes;
+
+        public StreamingMarkovGenerator(AliasMarkovChain model, int bufferSize) {
+            this.model = model;
+            this.wordBytes = new byte[model.dict.size()][];
+            this.noSpaceBefore = new boolean[model.dict.size()];
+            int max = 0;
+            for (int i = 0; i < wordBytes.length; i++) {
+                String word = model.dict.get(i);
+                wordBytes[i] = word.getBytes(StandardCharsets.UTF_8);
+                noSpaceBefore[i] = word.length() == 1;
+                max = Math.max(max, wordBytes[i].length);
+            }
+            this.maxWordBytes = max;
+            this.buf = ByteBuffer.allocateDirect(Math.max(bufferSize, maxWordBytes + 1));
+        }
+
+        /**
+         * Writes whole sentences until at least minBytes are written.
+         *
+         * @return number of bytes written
+         */
+        public long generate(WritableByteChannel out, long minBytes) throws IOException {
+            ThreadLocalRandom r = ThreadLocalRandom.current();
+            long written = 0;
+            buf.clear();
+            int curState = model.startState;
+            boolean lineStart = true;
+            while (!lineStart || written + buf.position() < minBytes) {
+                if (buf.remaining() <= maxWordBytes) { //space + word must fit
+                    written += drain(out);
+                }
+                int nextState = model.nextState(curState, r);
+                if (nextState == NON_WORD) {
+                    buf.put((byte) '\n');
+                    curState = model.startState;
+                    lineStart = true;
+                    continue;
+                }
+                curState = nextState;
+                int dictIdx = model.stateDictIdx[curState];
+                if (!lineStart && !noSpaceBefore[dictIdx]) {
+                    buf.put((byte) ' ');
+                }
+                buf.put(wordBytes[dictIdx]);
+                lineStart = false;
+            }
+            written += drain(out);
+            return written;
+        }
+
+        private int drain(WritableByteChannel out) throws IOException {
+            buf.flip();
+            int bytes = buf.remaining();
+            while (buf.hasRemaining()) {
+                out.write(buf);
+            }
+            buf.clear();
+            return bytes;
+        }
+    }
+
+
+    /**
+     * Training support structure: counts instead of lists of samples and no boxing.
+     * Not limited to BiGrams - the state is the N-gram of the last "order" words (order 2 == BiGram).
+     * <ul>
+     * <li>states:     N-gram<w1,..,wN> -> stateIDX</li>
+     * <li>edgeCounts: <stateIDX, nextDictIDX> -> number of times this transition was seen</li>
+     * </ul>
+     */
+    public static class TransitionCounts {
+        private static final int NON_WORD = MarkovChainIF.NON_WORD;
+
+        final int order;
+        final NGramIndex states;
+        final LongIntHashMap edgeCounts = new LongIntHashMap(4096);
+        private final int[] window;  //scratch - no allocation per sample
+        private final int[] successor; //scratch - no allocation per successor lookup
+
+        /**
+         * BiGrams
+         */
+        public TransitionCounts() {
+            this(2, Integer.MAX_VALUE);
+        }
+
+        /**
+         * @param order      number of words forming a state
+         * @param maxDictIdx largest dictIDX that will be added (Integer.MAX_VALUE if unknown) - decides if the N-gram
+         *                   keys can be packed into a long
+         */
+        public TransitionCounts(int order, int maxDictIdx) {
+            this.order = order;
+            this.states = new NGramIndex(order, maxDictIdx);
+            this.window = new int[order];
+            this.successor = new int[order];
+        }
+
+        public static TransitionCounts from(MarkovChain chain) {
+            TransitionCounts counts = new TransitionCounts();
+            for (Entry<BiGram, List<Integer>> e : chain.stateTrans.entrySet()) {
+                for (int next : e.getValue()) {
+                    counts.addSample(e.getKey().first, e.getKey().second, next);
+                }
+            }
+            return counts;
+        }
+
+        /**
+         * @param tokens dictIDX's of an already tokenized corpus - lines are terminated by NON_WORD
+         */
+        public static TransitionCounts fromTokens(int[] tokens) {
+            TransitionCounts counts = new TransitionCounts();
+            counts.addTokens(tokens, 0, tokens.length);
+            return counts;
+        }
+
+        public static TransitionCounts fromTokens(int[] tokens, int order, int maxDictIdx) {
+            TransitionCounts counts = new TransitionCounts(order, maxDictIdx);
+            counts.addTokens(tokens, 0, tokens.length);
+            return counts;
+        }
+
+        void addTokens(int[] tokens, int from, int to) {
+            Arrays.fill(window, NON_WORD);//start state
+            for (int i = from; i < to; i++) {
+                int next = tokens[i];
+                addSample(window, next, 1);
+                if (next == NON_WORD) {
+                    Arrays.fill(window, NON_WORD);
+                } else {
+                    System.arraycopy(window, 1, window, 0, order - 1);
+                    window[order - 1] = next;
+                }
+            }
+            if (to > from && tokens[to - 1] != NON_WORD) {
+                addSample(window, NON_WORD, 1);//terminal state of an unterminated last line
+            }
+        }
+
+        /**
+         * BiGrams only
+         *
+         * @throws IllegalStateException if order != 2
+         */
+        public void addSample(int first, int second, int next) {
+            addSample(first, second, next, 1);
+        }
+
+        /**
+         * BiGrams only
+         *
+         * @throws IllegalStateException if order != 2 - the remaining words of the state would be stale
+         */
+        public void addSample(int first, int second, int next, int count) {
+            if (order != 2) {
+                throw new IllegalStateException("BiGram sample on a TransitionCounts of order " + order);
+            }
+            window[0] = first;
+            window[1] = second;
+            addSample(window, next, count);
+        }
+
+        public void addSample(int[] nGram, int next, int count) {
+            edgeCounts.addTo(pack(states.getOrCreate(nGram), next), count);
+        }
+
+        /**
+         * Merges other (same order) into this.
+         *
+         * @param dictRemap dictIDX of other -> dictIDX of this
+         */
+        public void addAll(TransitionCounts other, int[] dictRemap) {
+            int[] stateRemap = new int[other.size()];
+            for (int stateIDX = 0; stateIDX < stateRemap.length; stateIDX++) {
+                for (int i = 0; i < order; i++) {
+                    window[i] = remap(dictRemap, other.states.word(stateIDX, i));
+                }
+                stateRemap[stateIDX] = states.getOrCreate(window);
+            }
+            other.edgeCounts.forEach((edge, count) ->
+                    edgeCounts.addTo(pack(stateRemap[high(edge)], remap(dictRemap, low(edge))), count));
+        }
+
+        private static int remap(int[] dictRemap, int dictIDX) {
+            return dictIDX == NON_WORD ? NON_WORD : dictRemap[dictIDX];
+        }
+
+        /**
+         * @return stateIDX of N-gram<w2,..,wN,next> for stateIDX N-gram<w1,..,wN>
+         */
+        int successor(int stateIDX, int next) {
+            for (int i = 1; i < order; i++) {
+                successor[i - 1] = states.word(stateIDX, i);
+            }
+            successor[order - 1] = next;
+            return states.get(successor);
+        }
+
+        int startState() {
+            Arrays.fill(successor, NON_WORD);
+            return states.get(successor);
+        }
+
+        /**
+         * @return the word emitted when entering the state (BiGram.second)
+         */
+        int dictIdx(int stateIDX) {
+            return states.word(stateIDX, order - 1);
+        }
+
+        public int size() {
+            return states.size();
+        }
+
+        static long pack(int high, int low) {
+            return ((long) high << 32) | (low & 0xFFFFFFFFL);
+        }
+
+        static int high(long packed) {
+            return (int) (packed >>> 32);
+        }
+
+        static int low(long packed) {
+            return (int) packed;
+        }
+    }
+
+
+    /**
+     * N-gram -> stateIDX. The words of all N-grams are stored in one flat int[] (stateIDX * order + i).
+     * Keys are either:
+     * <ul>
+     * <li>packed: all (dictIDX + 1) fit into one long - BiGrams always, higher orders if the dictionary is small
+     * enough (order 3: 2M words, order 4: 65k, order 5: 4k) -> one long compare per probe</li>
+     * <li>hashed: open addressing over stateIDX's and equality checked against the stored words</li>
+     * </ul>
+     */
+    static class NGramIndex {
+        private static final int NON_WORD = MarkovChainIF.NON_WORD;
+
+        final int order;
+        private final int bitsPerWord;  //0 == hashed
+        private final long wordMask;
+        private final LongIntHashMap packed;
+        private int[] slots; //hashed: stateIDX + 1, 0 == free
+        private int mask;
+        private int[] words = new int[1024];
+        private int size;
+
+        NGramIndex(int order, int maxDictIdx) {
+            this.order = order;
+            int bits = 32 - Integer.numberOfLeadingZeros(maxDictIdx + 1); //NON_WORD -> 0
+            this.bitsPerWord = order * bits <= 64 ? bits : 0;
+            this.wordMask = bitsPerWord == 0 ? 0 : -1L >>> (64 - bitsPerWord);
+            if (bitsPerWord > 0) {
+                this.packed = new LongIntHashMap(1024);
+            } else {
+                this.packed = null;
+                this.slots = new int[2048];
+                this.mask = slots.length - 1;
+            }
+        }
+
+        boolean isPacked() {
+            return bitsPerWord > 0;
+        }
+
+        int get(int[] nGram) {
+            if (isPacked()) {
+                return packed.get(pack(nGram), NON_WORD);
+            }
+            int slot = hash(nGram) & mask;
+            while (slots[slot] != 0) {
+                int stateIDX = slots[slot] - 1;
+                if (wordsEqual(stateIDX, nGram)) {
+                    return stateIDX;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return NON_WORD;
+        }
+
+        int getOrCreate(int[] nGram) {
+            if (isPacked()) {
+                long key = pack(nGram);
+                int stateIDX = packed.get(key, NON_WORD);
+                if (stateIDX == NON_WORD) {
+                    stateIDX = append(nGram);
+                    packed.put(key, stateIDX);
+                }
+                return stateIDX;
+            }
+            int slot = hash(nGram) & mask;
+            while (slots[slot] != 0) {
+                int stateIDX = slots[slot] - 1;
+                if (wordsEqual(stateIDX, nGram)) {
+                    return stateIDX;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int stateIDX = append(nGram);
+            slots[slot] = stateIDX + 1;
+            growIfRequired();
+            return stateIDX;
+        }
+
+        int word(int stateIDX, int i) {
+            return words[stateIDX * order + i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int append(int[] nGram) {
+            if ((size + 1) * order > words.length) {
+                words = Arrays.copyOf(words, Math.max(words.length * 2, (size + 1) * order));
+            }
+            System.arraycopy(nGram, 0, words, size * order, order);
+            return size++;
+        }
+
+        private boolean wordsEqual(int stateIDX, int[] nGram) {
+            int offset = stateIDX * order;
+            for (int i = 0; i < order; i++) {
+                if (words[offset + i] != nGram[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long pack(int[] nGram) {
+            long key = 0;
+            for (int i = 0; i < order; i++) {
+                long w = nGram[i] + 1L;
+                if (w > wordMask) {
+                    throw new IllegalArgumentException("dictIDX " + nGram[i] + " exceeds the maxDictIdx this index was created for");
+                }
+                key = (key << bitsPerWord) | w;
+            }
+            return key;
+        }
+
+        private int hash(int[] nGram) {
+            int h = 0;
+            for (int i = 0; i < order; i++) {
+                h = (h + nGram[i]) * 0x9E3779B9;
+            }
+            return h ^ (h >>> 16);
+        }
+
+        private void growIfRequired() {
+            if (size * 2 <= slots.length) { //load factor 0.5
+                return;
+            }
+            slots = new int[slots.length * 2];
+            mask = slots.length - 1;
+            int[] nGram = new int[order];
+            for (int stateIDX = 0; stateIDX < size; stateIDX++) {
+                System.arraycopy(words, stateIDX * order, nGram, 0, order);
+                int slot = hash(nGram) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = stateIDX + 1;
+            }
+        }
+    }
+
+
+    /**
+     * Minimal open addressing (linear probing) long->int hash map. No boxing, no Entry objects, two flat arrays.
+     * Long.MIN_VALUE is reserved as "free" marker - a packed pair of dictIDX's can never produce it.
+     */
+    static class LongIntHashMap {
+        private static final long FREE = Long.MIN_VALUE;
+
+        interface EntryConsumer {
+            void accept(long key, int value);
+        }
+
+        private long[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        LongIntHashMap(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(keys, FREE);
+        }
+
+        int get(long key, int defaultValue) {
+            int slot = slot(key);
+            return keys[slot] == FREE ? defaultValue : values[slot];
+        }
+
+        void put(long key, int value) {
+            int slot = slot(key);
+            if (keys[slot] == FREE) {
+                keys[slot] = key;
+                size++;
+                values[slot] = value;
+                growIfRequired();
+            } else {
+                values[slot] = value;
+            }
+        }
+
+        void addTo(long key, int increment) {
+            int slot = slot(key);
+            if (keys[slot] == FREE) {
+                keys[slot] = key;
+                size++;
+                values[slot] = increment;
+                growIfRequired();
+            } else {
+                values[slot] += increment;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        void forEach(EntryConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != FREE) {
+                    consumer.accept(keys[i], values[i]);
+                }
+            }
+        }
+
+        private int slot(long key) {
+            int slot = mix(key) & mask;
+            while (keys[slot] != FREE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        private void growIfRequired() {
+            if (size * 2 <= keys.length) { //load factor 0.5
+                return;
+            }
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            mask = keys.length - 1;
+            Arrays.fill(keys, FREE);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+
 
 
     public static class BiGram {
@@ -643,6 +1834,9 @@ public class SimpleMarkovChainBenchmarkJMH {
         sb.setLength(0);
         flatRunMarkovChain.generate(sb, 1000);
         System.out.println("FlatDirectIndexingRunMarkovChain: " + sb);
+        sb.setLength(0);
+        aliasMarkovChain.generate(sb, 1000);
+        System.out.println("AliasMarkovChain: " + sb);
 
 
         new Runner(new OptionsBuilder()
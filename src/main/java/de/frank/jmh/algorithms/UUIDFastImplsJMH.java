@@ -9,6 +9,7 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -20,14 +21,23 @@ import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.SecureRandomParameters;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
 
 /*--
  DISCLAIMER: Not all UUID implementations presented here are drop in replacement for jdk UUID (or any other) see description javadoc @ customUUID class
@@ -74,6 +84,26 @@ fasterxml_base                                            thrpt   30      729.54
 fasterxml_shared_secureRandom                             thrpt   30    2.429.346 ±    115.506  ops/s # can serve as drop in replacement for JDK UUID.
 fasterxml_threadlocal_secureRandom                        thrpt   30   19.880.718 ±  1.276.301  ops/s # recommendation if you need as little as possible custom code and general purpose secure UUID's
 fasterxml_threadlocal_secureRandom_wrapper                thrpt   30   18.854.731 ±  1.469.807  ops/s # not worth the extra code compared to fasterxml_threadlocal_secureRandom
+
+# Time ordered UUIDv7 - B-tree friendly keys (monotonic per thread, lock free)
+UUIDv7_systemClock           # System.currentTimeMillis() per UUID
+UUIDv7_coarseClock           # volatile read of a millisecond ticked by a daemon thread
+UUIDv7_orderedPerThread      # same as UUIDv7_systemClock, but verifies every UUID is > than its predecessor
+
+# Format/Parse - see FormatParseJMH (run with: main codec) - single threaded ns/op
+format_JDK_toString          # allocates the String (since jdk10 very fast)
+format_UUIDCodec_bytes       # SWAR hex encoding straight into a byte[] (e.g. JSON output buffer) -> ZERO-Allocation
+format_UUIDCodec_chars       # same into a char[]
+parse_JDK_fromString         # lenient parser - accepts non canonical forms
+parse_UUIDCodec_CharSequence # canonical 36 char form only, lookup table per char
+parse_UUIDCodec_bytes_SWAR   # canonical 36 char form only, 8 chars validated and decoded per long
+parse_UUIDCodec_bytes_msbLsb # same but without creating the UUID object -> ZERO-Allocation
+
+# Batch - see BatchJMH (run with: main batch) - every op mints batchSize UUID's, compare within the same batchSize
+loop_JDK_randomUUID          # baseline - shared SecureRandom, lock contention
+loop_FastUUID_secureRandom   # one 16 byte array + one nextBytes() call per UUID
+batch_FastUUID_UUIDs         # 4k block drawn per 256 UUID's - sliced into UUID objects
+batch_FastUUID_longs         # same, but msb/lsb pairs into a caller provided long[] -> ZERO-Allocation
  */
 
 /**
@@ -90,6 +120,34 @@ fasterxml_threadlocal_secureRandom_wrapper                thrpt   30   18.854.73
 public class UUIDFastImplsJMH {
 
     public static void main(String[] args) throws Throwable {
+        if (args.length > 0 && "v7".equals(args[0])) {
+            for (int threads : new int[]{1, 16, 64}) {
+                UUIDv7.verify(new UUIDv7(), threads, 100_000);
+                UUIDv7.verify(new UUIDv7(CoarseMillisClock.INSTANCE), threads, 100_000);
+            }
+            for (int threads : new int[]{1, 16, 64}) {
+                new Runner(new OptionsBuilder()
+                        .include(UUIDFastImplsJMH.class.getName() + ".UUIDv7_.*")
+                        .threads(threads)
+                        .build()).run();
+            }
+            return;
+        }
+        if (args.length > 0 && "codec".equals(args[0])) {
+            new Runner(new OptionsBuilder()
+                    .include(FormatParseJMH.class.getName())
+                    .build()).run();
+            return;
+        }
+        if (args.length > 0 && "batch".equals(args[0])) {
+            for (int threads : new int[]{1, 16}) { //uncontended, contended
+                new Runner(new OptionsBuilder()
+                        .include(BatchJMH.class.getName())
+                        .threads(threads)
+                        .build()).run();
+            }
+            return;
+        }
         Options opt = new OptionsBuilder()
                 .include(JWildcard.wildcardToRegex(UUIDFastImplsJMH.class.getName() + ".FastUUID_*"))
                 //.resultFormat(ResultFormatType.JSON)
@@ -178,6 +236,43 @@ public class UUIDFastImplsJMH {
     }
 
 
+    private static final UUIDv7 UUID_V7 = new UUIDv7();
+
+    //Lazy holder - only UUIDv7_coarseClock starts the CoarseMillisClock ticker thread, not every benchmark's fork
+    private static final class CoarseUUIDv7Holder {
+        static final UUIDv7 UUID_V7_COARSE = new UUIDv7(CoarseMillisClock.INSTANCE);
+    }
+
+    @State(Scope.Thread)
+    public static class LastUUID {
+        long msb;
+        long lsb;
+    }
+
+    @Benchmark
+    public String UUIDv7_systemClock() {
+        //sets correct "version 7" and variant flags
+        return UUID_V7.next().toString();
+    }
+
+    @Benchmark
+    public String UUIDv7_coarseClock() {
+        //sets correct "version 7" and variant flags
+        return CoarseUUIDv7Holder.UUID_V7_COARSE.next().toString();
+    }
+
+    @Benchmark
+    public String UUIDv7_orderedPerThread(LastUUID last) {
+        UUID uuid = UUID_V7.next();
+        if (UUIDv7.compare(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), last.msb, last.lsb) <= 0) {
+            throw new IllegalStateException("not monotonic: " + uuid + " <= " + new UUID(last.msb, last.lsb));
+        }
+        last.msb = uuid.getMostSignificantBits();
+        last.lsb = uuid.getLeastSignificantBits();
+        return uuid.toString();
+    }
+
+
     @Benchmark
     public String FastUUIDWithCustomToString_ThreadLocalRandom() {
         //sets correct "version 4" and variant flags
@@ -231,6 +326,132 @@ public class UUIDFastImplsJMH {
         return UUID_GENERATOR2.generate().toString();
     }
 
+    /*
+     * UUID's written to / read from JSON and binary buffers - without the intermediate String.
+     */
+    @BenchmarkMode({Mode.AverageTime})
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(3)
+    @Threads(1)
+    @State(Scope.Thread)
+    public static class FormatParseJMH {
+        private static final int SAMPLES = 1024; //power of 2
+
+        private final UUID[] uuids = new UUID[SAMPLES];
+        private final String[] strings = new String[SAMPLES];
+        private final byte[][] bytes = new byte[SAMPLES][];
+        private final byte[] byteBuf = new byte[UUIDCodec.UUID_STRING_LEN];
+        private final char[] charBuf = new char[UUIDCodec.UUID_STRING_LEN];
+        private int i;
+
+        @Setup
+        public void setup() {
+            for (int j = 0; j < SAMPLES; j++) {
+                uuids[j] = UUID.randomUUID();
+                strings[j] = uuids[j].toString();
+                bytes[j] = strings[j].getBytes(StandardCharsets.US_ASCII);
+            }
+        }
+
+        private int next() {
+            return i = (i + 1) & (SAMPLES - 1);
+        }
+
+        @Benchmark
+        public String format_JDK_toString() {
+            return uuids[next()].toString();
+        }
+
+        @Benchmark
+        public byte[] format_UUIDCodec_bytes() {
+            UUIDCodec.formatTo(uuids[next()], byteBuf, 0);
+            return byteBuf;
+        }
+
+        @Benchmark
+        public char[] format_UUIDCodec_chars() {
+            UUIDCodec.formatTo(uuids[next()], charBuf, 0);
+            return charBuf;
+        }
+
+        @Benchmark
+        public UUID parse_JDK_fromString() {
+            return UUID.fromString(strings[next()]);
+        }
+
+        @Benchmark
+        public UUID parse_UUIDCodec_CharSequence() {
+            return UUIDCodec.parse(strings[next()]);
+        }
+
+        @Benchmark
+        public UUID parse_UUIDCodec_bytes_SWAR() {
+            return UUIDCodec.parse(bytes[next()], 0);
+        }
+
+        @Benchmark
+        public void parse_UUIDCodec_bytes_msbLsb(Blackhole bh) {
+            byte[] src = bytes[next()];
+            bh.consume(UUIDCodec.parseMostSigBits(src, 0));
+            bh.consume(UUIDCodec.parseLeastSigBits(src, 0));
+        }
+    }
+
+    /*
+     * UUID's minted in bursts. Each op creates batchSize UUID's - scores are only comparable for the same batchSize.
+     * ops/s * batchSize == UUID's/s
+     */
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(3)
+    @Threads(16)
+    @State(Scope.Thread)
+    public static class BatchJMH {
+        @Param({"1", "16", "256", "4096"})
+        private int batchSize;
+
+        private UUID[] uuids;
+        private long[] msbLsb;
+
+        @Setup
+        public void setup() {
+            uuids = new UUID[batchSize];
+            msbLsb = new long[batchSize * 2];
+        }
+
+        @Benchmark
+        public UUID[] loop_JDK_randomUUID() {
+            for (int i = 0; i < batchSize; i++) {
+                uuids[i] = UUID.randomUUID();
+            }
+            return uuids;
+        }
+
+        @Benchmark
+        public UUID[] loop_FastUUID_secureRandom() {
+            for (int i = 0; i < batchSize; i++) {
+                uuids[i] = FastUUID.secureRandomUUID();
+            }
+            return uuids;
+        }
+
+        @Benchmark
+        public UUID[] batch_FastUUID_UUIDs() {
+            FastUUID.secureRandomUUIDs(uuids, 0, batchSize);
+            return uuids;
+        }
+
+        @Benchmark
+        public long[] batch_FastUUID_longs() {
+            FastUUID.secureRandomUUIDs(msbLsb, 0, batchSize);
+            return msbLsb;
+        }
+    }
+
     static class ThreadLocalSecureRandom extends SecureRandom {
         private final ThreadLocal<SecureRandom> threadLocalRandom;
 
@@ -278,6 +499,9 @@ public class UUIDFastImplsJMH {
         //"ThreadLocals should be cleaned" no, we want the cache to live as long as the entire thread is living.
         @SuppressWarnings("java:S5164")
         private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(() -> newSecureRandom("SHA1PRNG"));
+        @SuppressWarnings("java:S5164")
+        private static final ThreadLocal<RandomBlock> SECURE_RANDOM_BLOCK = ThreadLocal.withInitial(() -> new RandomBlock(SECURE_RANDOM.get()));
+        private static final VarHandle BIG_ENDIAN_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
 
         private static SecureRandom newSecureRandom(String algo) {
             try {
@@ -325,6 +549,48 @@ public class UUIDFastImplsJMH {
             return randomUUIDFromLongs(r);
         }
 
+        /**
+         * Fills dst[offset..offset+count) with type 4 UUID's from the thread local SecureRandom.
+         * See {@link #secureRandomUUIDs(long[], int, int)}.
+         */
+        public static void secureRandomUUIDs(UUID[] dst, int offset, int count) {
+            RandomBlock block = SECURE_RANDOM_BLOCK.get();
+            for (int i = offset; i < offset + count; i++) {
+                int pos = block.next();
+                dst[i] = new UUID(
+                        version4(readLong(block.bytes, pos)),
+                        ietfVariant(readLong(block.bytes, pos + Long.BYTES)));
+            }
+        }
+
+        /**
+         * Fills msbLsb with count type 4 UUID's as (mostSigBits, leastSigBits) pairs, starting at msbLsb[offset].
+         * <p>
+         * Unlike {@link #secureRandomUUID()} this does not call SecureRandom.nextBytes() with a fresh 16 byte array per
+         * UUID, but draws one 4k block per 256 UUID's from the thread local SecureRandom and slices it.
+         * Unused bytes of a block are kept (thread confined) for the next call.
+         */
+        public static void secureRandomUUIDs(long[] msbLsb, int offset, int count) {
+            RandomBlock block = SECURE_RANDOM_BLOCK.get();
+            for (int i = offset; i < offset + count * 2; i += 2) {
+                int pos = block.next();
+                msbLsb[i] = version4(readLong(block.bytes, pos));
+                msbLsb[i + 1] = ietfVariant(readLong(block.bytes, pos + Long.BYTES));
+            }
+        }
+
+        private static long version4(long msb) {
+            return (msb & ~0xF000L) | 0x4000L;
+        }
+
+        private static long ietfVariant(long lsb) {
+            return (lsb & 0x3fFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        }
+
+        private static long readLong(byte[] data, int offset) {
+            return (long) BIG_ENDIAN_LONG.get(data, offset);
+        }
+
         private static UUID randomUUIDFromBytes(Random r) {
 
             final byte[] data = new byte[16];
@@ -357,6 +623,349 @@ public class UUIDFastImplsJMH {
             }
             return l;
         }
+
+        /**
+         * Random bytes drawn in blocks of 256 UUID's (4k) - handed out 16 bytes at a time.
+         */
+        private static final class RandomBlock {
+            private static final int UUID_BYTES = 16;
+            private final SecureRandom r;
+            private final byte[] bytes = new byte[256 * UUID_BYTES];
+            private int pos = bytes.length;
+
+            RandomBlock(SecureRandom r) {
+                this.r = r;
+            }
+
+            /**
+             * @return offset of the next 16 unused bytes
+             */
+            int next() {
+                if (pos == bytes.length) {
+                    r.nextBytes(bytes);
+                    pos = 0;
+                }
+                int p = pos;
+                pos += UUID_BYTES;
+                return p;
+            }
+        }
+    }
+
+
+    /**
+     * Time ordered version 7 UUID (RFC 9562): 48 bit unix epoch millis | version 7 | 12 bit counter | variant | 62
+     * random bits.
+     * <p>
+     * Random v4 keys scatter inserts over the whole B-tree (page splits, cold pages). v7 keys of the same millisecond
+     * share a prefix, so inserts hit the "right edge" of the index.
+     * <ul>
+     * <li>lock free: the counter is per thread - no shared state but the clock</li>
+     * <li>monotonic per thread: within the same millisecond (or if the clock goes backwards) the counter is
+     * incremented, on overflow the timestamp is advanced by one ms instead of waiting for the clock</li>
+     * <li>NOT monotonic across threads within the same millisecond - only "roughly" ordered, which is all the
+     * B-tree needs</li>
+     * </ul>
+     * The counter starts at a random value below 2048 for every new millisecond, so at least 2048 UUID's per thread
+     * and millisecond are possible before the timestamp is advanced.
+     */
+    public static class UUIDv7 {
+        private static final int COUNTER_MASK = 0xFFF;
+
+        private final LongSupplier millisClock;
+        @SuppressWarnings("java:S5164")
+        private final ThreadLocal<Sequence> sequences = ThreadLocal.withInitial(Sequence::new);
+
+        public UUIDv7() {
+            this(System::currentTimeMillis);
+        }
+
+        public UUIDv7(LongSupplier millisClock) {
+            this.millisClock = millisClock;
+        }
+
+        public UUID next() {
+            ThreadLocalRandom r = ThreadLocalRandom.current();
+            Sequence s = sequences.get();
+            long now = millisClock.getAsLong();
+            if (now > s.millis) {
+                s.millis = now;
+                s.counter = r.nextInt(COUNTER_MASK >>> 1);
+            } else if (++s.counter > COUNTER_MASK) {
+                //counter exhausted (or clock went backwards and we ran out) - borrow from the next ms
+                s.millis++;
+                s.counter = 0;
+            }
+            long msb = (s.millis << 16) | 0x7000L | s.counter;
+            long lsb = (r.nextLong() & 0x3fFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            return new UUID(msb, lsb);
+        }
+
+        /**
+         * Byte order (unsigned) comparison - how a database compares binary UUID's.
+         * UUID.compareTo() compares signed longs.
+         */
+        static int compare(long msb1, long lsb1, long msb2, long lsb2) {
+            int c = Long.compareUnsigned(msb1, msb2);
+            return c != 0 ? c : Long.compareUnsigned(lsb1, lsb2);
+        }
+
+        /**
+         * Every thread generates perThread UUID's. Checks version/variant, monotonic order per thread and global
+         * uniqueness.
+         */
+        static void verify(UUIDv7 generator, int threads, int perThread) throws InterruptedException {
+            UUID[][] generated = new UUID[threads][perThread];
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                UUID[] out = generated[t];
+                workers[t] = new Thread(() -> {
+                    for (int i = 0; i < out.length; i++) {
+                        out[i] = generator.next();
+                    }
+                });
+                workers[t].start();
+            }
+            Set<UUID> unique = new HashSet<>(threads * perThread * 2);
+            for (int t = 0; t < threads; t++) {
+                workers[t].join();
+                UUID prev = null;
+                for (UUID uuid : generated[t]) {
+                    if (uuid.version() != 7 || uuid.variant() != 2) {
+                        throw new IllegalStateException("wrong version/variant: " + uuid);
+                    }
+                    if (prev != null && compare(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(),
+                            prev.getMostSignificantBits(), prev.getLeastSignificantBits()) <= 0) {
+                        throw new IllegalStateException("not monotonic: " + uuid + " <= " + prev);
+                    }
+                    if (!unique.add(uuid)) {
+                        throw new IllegalStateException("duplicate: " + uuid);
+                    }
+                    prev = uuid;
+                }
+            }
+            System.out.printf("UUIDv7 %s threads: %d x %,d UUID's ordered per thread and unique%n",
+                    generator.millisClock instanceof CoarseMillisClock ? "coarseClock" : "systemClock", threads, perThread);
+        }
+
+        private static final class Sequence {
+            long millis = Long.MIN_VALUE;
+            int counter;
+        }
+    }
+
+    /**
+     * Current millis as a volatile read, updated by a daemon thread about every millisecond.
+     * Readers never touch the OS clock - only a (mostly read-shared) cache line.
+     */
+    public static final class CoarseMillisClock implements LongSupplier {
+        public static final CoarseMillisClock INSTANCE = new CoarseMillisClock();
+
+        private volatile long millis = System.currentTimeMillis();
+
+        private CoarseMillisClock() {
+            Thread ticker = new Thread(() -> {
+                while (true) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    millis = System.currentTimeMillis();
+                }
+            }, "CoarseMillisClock");
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+
+        @Override
+        public long getAsLong() {
+            return millis;
+        }
+    }
+
+
+    /**
+     * Allocation free format/parse of the canonical 36 char UUID form (8-4-4-4-12 hex digits) into/from caller
+     * provided buffers. Unlike FastUUIDWithCustomToString the version/variant bits are not touched - works for any
+     * UUID.
+     * <p>
+     * byte[] variants use SWAR (SIMD within a register): 8 hex digits are encoded/validated/decoded in one long with a
+     * handful of arithmetic ops instead of a table lookup and branch per char.
+     * <p>
+     * Parsing is strict: only the canonical form (lower or upper case hex) is accepted - UUID.fromString() is lenient
+     * and also accepts e.g. "1-2-3-4-5".
+     */
+    public static final class UUIDCodec {
+        public static final int UUID_STRING_LEN = 36;
+
+        private static final VarHandle BE_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+        private static final VarHandle BE_INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+        private static final long ONES = 0x0101010101010101L;
+        private static final long HIGH_BITS = 0x8080808080808080L;
+        private static final byte[] HEX_VALUES = new byte[128];
+
+        static {
+            Arrays.fill(HEX_VALUES, (byte) -1);
+            for (int c = '0'; c <= '9'; c++) {
+                HEX_VALUES[c] = (byte) (c - '0');
+            }
+            for (int c = 'a'; c <= 'f'; c++) {
+                HEX_VALUES[c] = (byte) (c - 'a' + 10);
+                HEX_VALUES[c - 'a' + 'A'] = (byte) (c - 'a' + 10);
+            }
+        }
+
+        private UUIDCodec() {
+        }
+
+        public static void formatTo(UUID uuid, byte[] dst, int offset) {
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            BE_LONG.set(dst, offset, hex8(msb >>> 32));
+            dst[offset + 8] = '-';
+            BE_INT.set(dst, offset + 9, (int) hex8((msb >>> 16) & 0xFFFF));
+            dst[offset + 13] = '-';
+            BE_INT.set(dst, offset + 14, (int) hex8(msb & 0xFFFF));
+            dst[offset + 18] = '-';
+            BE_INT.set(dst, offset + 19, (int) hex8(lsb >>> 48));
+            dst[offset + 23] = '-';
+            BE_INT.set(dst, offset + 24, (int) hex8((lsb >>> 32) & 0xFFFF));
+            BE_LONG.set(dst, offset + 28, hex8(lsb & 0xFFFFFFFFL));
+        }
+
+        public static void formatTo(UUID uuid, char[] dst, int offset) {
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            toChars(hex8(msb >>> 32), 8, dst, offset);
+            dst[offset + 8] = '-';
+            toChars(hex8((msb >>> 16) & 0xFFFF), 4, dst, offset + 9);
+            dst[offset + 13] = '-';
+            toChars(hex8(msb & 0xFFFF), 4, dst, offset + 14);
+            dst[offset + 18] = '-';
+            toChars(hex8(lsb >>> 48), 4, dst, offset + 19);
+            dst[offset + 23] = '-';
+            toChars(hex8((lsb >>> 32) & 0xFFFF), 4, dst, offset + 24);
+            toChars(hex8(lsb & 0xFFFFFFFFL), 8, dst, offset + 28);
+        }
+
+        /**
+         * @return 8 lowercase ascii hex digits of the lower 32 bits of value - first digit in the most significant byte
+         */
+        private static long hex8(long value) {
+            //spread: 0x12345678 -> 0x0102030405060708
+            long x = (value | (value << 16)) & 0x0000FFFF0000FFFFL;
+            x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+            x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+            //0-9 -> '0'-'9', 10-15 -> 'a'-'f'
+            long letters = ((x + 0x06 * ONES) >>> 4) & ONES;
+            return x + '0' * ONES + letters * ('a' - '9' - 1);
+        }
+
+        private static void toChars(long ascii, int digits, char[] dst, int offset) {
+            for (int i = 0; i < digits; i++) {
+                dst[offset + i] = (char) ((ascii >>> ((digits - 1 - i) * 8)) & 0xFF);
+            }
+        }
+
+        public static UUID parse(byte[] src, int offset) {
+            checkDashes(src, offset);
+            return new UUID(mostSigBits(src, offset), leastSigBits(src, offset));
+        }
+
+        public static long parseMostSigBits(byte[] src, int offset) {
+            checkDashes(src, offset);
+            return mostSigBits(src, offset);
+        }
+
+        public static long parseLeastSigBits(byte[] src, int offset) {
+            checkDashes(src, offset);
+            return leastSigBits(src, offset);
+        }
+
+        private static long mostSigBits(byte[] src, int offset) {
+            long timeLow = unhex8((long) BE_LONG.get(src, offset));
+            long mid = unhex8(((long) (int) BE_INT.get(src, offset + 9) << 32)
+                    | ((int) BE_INT.get(src, offset + 14) & 0xFFFFFFFFL));
+            return (timeLow << 32) | mid;
+        }
+
+        private static long leastSigBits(byte[] src, int offset) {
+            long high = unhex8(((long) (int) BE_INT.get(src, offset + 19) << 32)
+                    | ((int) BE_INT.get(src, offset + 24) & 0xFFFFFFFFL));
+            return (high << 32) | unhex8((long) BE_LONG.get(src, offset + 28));
+        }
+
+        private static void checkDashes(byte[] src, int offset) {
+            if (src[offset + 8] != '-' || src[offset + 13] != '-' || src[offset + 18] != '-' || src[offset + 23] != '-') {
+                throw new IllegalArgumentException("Invalid UUID string: " + new String(src, offset, Math.min(UUID_STRING_LEN,
+                        src.length - offset), StandardCharsets.ISO_8859_1));
+            }
+        }
+
+        /**
+         * @param ascii 8 ascii hex digits (either case) - first digit in the most significant byte
+         * @return the 32 bit value
+         */
+        private static long unhex8(long ascii) {
+            //validate every byte is [0-9a-fA-F] - no branch per char
+            long lower = ascii | 0x20 * ONES;
+            long digit = geq(ascii, '0') & ~geq(ascii, '9' + 1);
+            long alpha = geq(lower, 'a') & ~geq(lower, 'f' + 1);
+            if ((ascii & HIGH_BITS) != 0 || (digit | alpha) != HIGH_BITS) {
+                throw new IllegalArgumentException("Invalid UUID hex digits: " + Long.toHexString(ascii));
+            }
+            //'0'-'9' -> 0-9, 'a'-'f'/'A'-'F' -> 1-6 + 9
+            long x = (ascii & 0x0F0F0F0F0F0F0F0FL) + ((ascii & 0x4040404040404040L) >>> 6) * 9;
+            //pack: 0x0102030405060708 -> 0x12345678
+            x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+            x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+            return (x | (x >>> 16)) & 0xFFFFFFFFL;
+        }
+
+        /**
+         * @return high bit of each byte set if byte >= c (bytes must be < 0x80)
+         */
+        private static long geq(long x, int c) {
+            return (x + (0x80 - c) * ONES) & HIGH_BITS;
+        }
+
+        /**
+         * @param src exactly the 36 chars of the canonical form - no leading or trailing chars
+         */
+        public static UUID parse(CharSequence src) {
+            if (src.length() != UUID_STRING_LEN) {
+                throw new IllegalArgumentException("Invalid UUID string: " + src);
+            }
+            return parse(src, 0);
+        }
+
+        /**
+         * @param src    holds the 36 chars of the canonical form at offset - chars after it are ignored
+         * @param offset start of the UUID in src
+         */
+        public static UUID parse(CharSequence src, int offset) {
+            if (offset < 0 || src.length() - offset < UUID_STRING_LEN
+                    || src.charAt(offset + 8) != '-' || src.charAt(offset + 13) != '-'
+                    || src.charAt(offset + 18) != '-' || src.charAt(offset + 23) != '-') {
+                throw new IllegalArgumentException("Invalid UUID string at " + offset + ": " + src);
+            }
+            long msb = hex(src, offset, 8);
+            msb = (msb << 16) | hex(src, offset + 9, 4);
+            msb = (msb << 16) | hex(src, offset + 14, 4);
+            long lsb = hex(src, offset + 19, 4);
+            lsb = (lsb << 48) | hex(src, offset + 24, 12);
+            return new UUID(msb, lsb);
+        }
+
+        private static long hex(CharSequence src, int offset, int digits) {
+            long value = 0;
+            for (int i = offset; i < offset + digits; i++) {
+                char c = src.charAt(i);
+                int nibble = c < 128 ? HEX_VALUES[c] : -1;
+                if (nibble < 0) {
+                    throw new IllegalArgumentException("Invalid UUID string: " + src);
+                }
+                value = (value << 4) | nibble;
+            }
+            return value;
+        }
     }
 
 
@@ -0,0 +1,302 @@
+package de.frank.jmh.architecture;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*--
+Q: LazyLoaderBenchmarkJMH/LazyInitializierJMH only look at the steady state get() - all variants are within a few %.
+   What hurts after a deploy is the first call: the first request pays for every lazy it touches - and for the lazies
+   those depend on, one after the other, in the request thread.
+A: Start computing at registration on a background executor (AsyncLazyLoader), scheduled along the dependency graph
+   (LazyRegistry) - independent lazies are computed in parallel, get() blocks only if it comes before the value.
+
+Time-to-ready of 100 lazies, each doing 'work' after its dependencies are available:
+- independent: 100 lazies without dependencies
+- layered:     10 layers of 10, each depends on all of the previous layer
+- chain:       each depends on its predecessor - no parallelism possible, shows the scheduling overhead
+
+Expectations (run it - scales with cores for cpu work, with the number of virtual threads for io work):
+- sequential (DCLLazyLoader, first get() of each): sum of all work - 100x work
+- async independent/layered: ~ 100x work / cores (cpu), ~1x resp. 10x work (io, virtual threads) - the io work on
+  the commonPool is limited by its parallelism, blocking FJ workers is what virtual threads are for
+- async chain: ~ sequential + a few us per hop for the hand over between threads
+Steady state get() (LazyLoaderBenchmarkJMH.asyncEager) is one volatile read - same as the DCL variants.
+*/
+
+/**
+ * @author Michael Frank
+ * @version 1.0 19.10.2026
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class AsyncLazyLoaderJMH {
+
+    private static final int LAZIES = 100;
+    private static final int LAYER_SIZE = 10;
+
+    @Param({"independent", "layered", "chain"})
+    public String graph;
+
+    /**
+     * cpu: Blackhole.consumeCPU(50_000) ~ 0.1ms, io: sleep 1ms
+     */
+    @Param({"cpu", "io"})
+    public String work;
+
+    @Param({"commonPool", "virtualThreads"})
+    public String executor;
+
+    private ExecutorService ownedExecutor;
+    private Executor asyncExecutor;
+
+    @Setup
+    public void setup() {
+        if ("virtualThreads".equals(executor)) {
+            ownedExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            asyncExecutor = ownedExecutor;
+        } else {
+            asyncExecutor = ForkJoinPool.commonPool();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+
+    /**
+     * @return indices of the lazies node i depends on - always smaller than i
+     */
+    private int[] dependencies(int i) {
+        return switch (graph) {
+            case "independent" -> new int[0];
+            case "chain" -> i == 0 ? new int[0] : new int[]{i - 1};
+            case "layered" -> {
+                int layerStart = i / LAYER_SIZE * LAYER_SIZE;
+                int[] deps = new int[layerStart == 0 ? 0 : LAYER_SIZE];
+                for (int d = 0; d < deps.length; d++) {
+                    deps[d] = layerStart - LAYER_SIZE + d;
+                }
+                yield deps;
+            }
+            default -> throw new IllegalArgumentException("unknown graph: " + graph);
+        };
+    }
+
+    private Integer compute(int node, List<? extends Supplier<Integer>> dependencies) {
+        int sum = node;
+        for (Supplier<Integer> dependency : dependencies) {
+            sum += dependency.get();
+        }
+        if ("io".equals(work)) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        } else {
+            Blackhole.consumeCPU(50_000);
+        }
+        return sum;
+    }
+
+    /**
+     * Baseline: classic lazies - the first caller computes everything, dependencies recursively.
+     */
+    @Benchmark
+    public int sequential() {
+        List<Supplier<Integer>> lazies = new ArrayList<>(LAZIES);
+        for (int i = 0; i < LAZIES; i++) {
+            int node = i;
+            List<Supplier<Integer>> deps = select(lazies, dependencies(i));
+            lazies.add(LazyLoaderBenchmarkJMH.DCLLazyLoader.of(() -> compute(node, deps)));
+        }
+        int sum = 0;
+        for (Supplier<Integer> lazy : lazies) {
+            sum += lazy.get();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int async() {
+        LazyRegistry registry = new LazyRegistry(asyncExecutor);
+        List<AsyncLazyLoader<Integer>> lazies = new ArrayList<>(LAZIES);
+        for (int i = 0; i < LAZIES; i++) {
+            int node = i;
+            List<AsyncLazyLoader<Integer>> deps = select(lazies, dependencies(i));
+            lazies.add(registry.register(() -> compute(node, deps), deps));
+        }
+        registry.ready().join();
+        int sum = 0;
+        for (AsyncLazyLoader<Integer> lazy : lazies) {
+            sum += lazy.get();
+        }
+        return sum;
+    }
+
+    private static <T> List<T> select(List<T> all, int[] indices) {
+        List<T> selected = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            selected.add(all.get(index));
+        }
+        return selected;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()//
+                .include(AsyncLazyLoaderJMH.class.getName())//
+                .result(String.format("%s_%s.json",
+                        DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
+                        AsyncLazyLoaderJMH.class.getSimpleName()))
+                .addProfiler(GCProfiler.class)//
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * Eager counterpart of {@link LazyLoaderBenchmarkJMH.DCLLazyLoader}: the supplier starts running on the executor
+     * as soon as the loader is created, get() only blocks if it is called before the value is there. The supplier is
+     * called exactly once - if it throws, every get() throws (RuntimeExceptions and Errors unwrapped).
+     * <p>
+     * Usage:
+     * <pre>
+     *  private final Supplier&lt;ExpensiveObject&gt; expensive = AsyncLazyLoader.of(SomeClass::createExpensiveObject, executor);
+     * </pre>
+     * When would you use this:<br/>
+     * Same as a lazy loader - but when you know the value will be needed soon and do not want the first request to
+     * pay for it, e.g. caches and lookups loaded right after startup.
+     */
+    public static class AsyncLazyLoader<T> implements Supplier<T> {
+
+        private final CompletableFuture<T> future;
+        // fast path - set once the future completed, avoids the CompletableFuture state checks on every get()
+        private volatile T value;
+
+        private AsyncLazyLoader(CompletableFuture<T> future) {
+            this.future = future;
+            future.thenAccept(v -> value = v);
+        }
+
+        public static <T> AsyncLazyLoader<T> of(Supplier<T> supplier, Executor executor) {
+            return new AsyncLazyLoader<>(CompletableFuture.supplyAsync(Objects.requireNonNull(supplier), executor));
+        }
+
+        @Override
+        public T get() {
+            T t = value;
+            if (t != null) {
+                return t;
+            }
+            // slow path - not done yet, failed or a null value
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        /**
+         * @return a view of the computation, e.g. to chain on it - completing it does not affect the loader
+         */
+        public CompletableFuture<T> toCompletableFuture() {
+            return future.copy();
+        }
+    }
+
+    /**
+     * Pre-warms a dependency graph of {@link AsyncLazyLoader}s: each one is started as soon as all of its dependencies
+     * are done, independent ones run in parallel on the executor. Dependencies must be registered first - so the graph
+     * cannot contain cycles and a supplier never blocks on get() of a declared dependency.
+     * <p>
+     * Usage:
+     * <pre>
+     *  LazyRegistry registry = new LazyRegistry(executor);
+     *  AsyncLazyLoader&lt;Config&gt; config = registry.register(Config::load, List.of());
+     *  AsyncLazyLoader&lt;Client&gt; client = registry.register(() -&gt; new Client(config.get()), List.of(config));
+     *  registry.ready().join(); // e.g. before the readiness probe reports UP
+     * </pre>
+     * If a lazy fails, the lazies depending on it fail with the same exception without running their supplier.
+     */
+    public static class LazyRegistry {
+
+        private final Executor executor;
+        private final List<CompletableFuture<?>> registered = new ArrayList<>();
+
+        public LazyRegistry(Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+        }
+
+        public synchronized <T> AsyncLazyLoader<T> register(Supplier<T> supplier,
+                                                            List<? extends AsyncLazyLoader<?>> dependsOn) {
+            Objects.requireNonNull(supplier);
+            CompletableFuture<T> future;
+            if (dependsOn.isEmpty()) {
+                future = CompletableFuture.supplyAsync(supplier, executor);
+            } else {
+                CompletableFuture<?>[] dependencies = new CompletableFuture<?>[dependsOn.size()];
+                for (int i = 0; i < dependencies.length; i++) {
+                    AsyncLazyLoader<?> dependency = dependsOn.get(i);
+                    dependencies[i] = dependency.future;
+                }
+                future = CompletableFuture.allOf(dependencies).thenApplyAsync(ignored -> supplier.get(), executor);
+            }
+            registered.add(future);
+            return new AsyncLazyLoader<>(future);
+        }
+
+        /**
+         * @return completes when all lazies registered so far are done - exceptionally if one of them failed
+         */
+        public synchronized CompletableFuture<Void> ready() {
+            return CompletableFuture.allOf(registered.toArray(CompletableFuture<?>[]::new));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package de.frank.jmh.architecture;
+
+import de.frank.impl.crypto.CipherCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*--
+Q: CipherCacheThreadLocalJMH: a thread local Cipher re-initialized with a different key each call is ~3x faster than a
+   new Cipher each call. With thousands of tenant keys - does a per thread LRU of Ciphers per key help, and how big
+   must it be?
+A: It depends on the hit ratio, which the key distribution decides. Tenant traffic is Zipf distributed: a few tenants
+   produce most of the requests. Expectations (hit ratio of the whole trial printed on TearDown):
+   - skew 1.2: a 128 entry LRU already catches most requests -> approaches the "same key" speed for small data
+   - skew 0.8: the tail is fat - at 10k keys even 1024 entries hit only part of the requests
+   - a miss costs Cipher.getInstance() + key expansion - as much as newEachTime plus the LRU bookkeeping
+   - lruCache_directBuffer allocates only the GCMParameterSpec (IV clone) per call - no byte[] for the payload
+
+All variants use AES/GCM with a fresh random IV per message. Re-using an initialized Cipher without a new IV (like
+CipherCacheThreadLocalJMH.threadLocal_sameKey does with CBC) repeats the IV - with GCM that leaks the authentication key
+and the JDK refuses it.
+*/
+
+/**
+ * @author Michael Frank
+ * @version 1.0 19.10.2026
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(16)
+public class CipherKeyCacheJMH {
+
+    private static final int SAMPLES = 1 << 20;
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(CipherKeyCacheJMH::newCipher);
+
+    @Param({"16", "128", "1024"})
+    public int cacheSize;
+
+    private CipherCache cache;
+
+    /**
+     * Tenant keys and the pre-sampled key sequence - shared by the cached and the uncached benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class TenantKeys {
+        @Param({"1000", "10000"})
+        public int keys;
+
+        @Param({"0.8", "1.2"})
+        public double skew;
+
+        SecretKey[] tenantKeys;
+        //pre-sampled key indices - the benchmarks measure the cipher, not the sampling
+        int[] zipfSamples;
+
+        @Setup
+        public void setup() {
+            SecureRandom random = new SecureRandom();
+            tenantKeys = new SecretKey[keys];
+            for (int i = 0; i < keys; i++) {
+                byte[] key = new byte[256 / Byte.SIZE];
+                random.nextBytes(key);
+                tenantKeys[i] = new SecretKeySpec(key, "AES");
+            }
+            zipfSamples = zipf(keys, skew, SAMPLES, new SplittableRandom(42));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        @Param({"20", "2000"})
+        public int dataLen;
+
+        final SecureRandom random = new SecureRandom();
+        final byte[] iv = new byte[CipherCache.IV_LENGTH];
+        int cursor;
+        byte[] data;
+        ByteBuffer directIn;
+        ByteBuffer directOut;
+
+        @Setup
+        public void setup() {
+            cursor = new SplittableRandom().nextInt(SAMPLES);
+            data = new byte[dataLen];
+            random.nextBytes(data);
+            directIn = ByteBuffer.allocateDirect(dataLen).put(data).flip();
+            directOut = ByteBuffer.allocateDirect(dataLen + CipherCache.OVERHEAD);
+        }
+
+        SecretKey nextKey(TenantKeys k) {
+            int i = cursor;
+            cursor = (i + 1) & (SAMPLES - 1);
+            return k.tenantKeys[k.zipfSamples[i]];
+        }
+    }
+
+    /**
+     * One cache for the whole trial - the LRUs are warm after the warmup iterations, as in a long running service.
+     */
+    @Setup
+    public void setup() {
+        cache = new CipherCache(cacheSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf(" [hitRatio %.3f]", cache.hitRatio());
+    }
+
+    /**
+     * Inverse transform sampling: P(rank k) ~ 1/k^skew, rank 1 = key 0.
+     */
+    static int[] zipf(int n, double skew, int samples, SplittableRandom random) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, skew);
+            cdf[k] = sum;
+        }
+        int[] result = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            int idx = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            result[i] = Math.min(n - 1, idx >= 0 ? idx : -idx - 1);
+        }
+        return result;
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(CipherCache.TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static byte[] encrypt(Cipher cipher, SecretKey key, ThreadState t) throws GeneralSecurityException {
+        t.random.nextBytes(t.iv);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(CipherCache.TAG_LENGTH * Byte.SIZE, t.iv));
+        return cipher.doFinal(t.data);
+    }
+
+    @Benchmark
+    public byte[] lruCache_byteArray(TenantKeys k, ThreadState t) throws GeneralSecurityException {
+        return cache.encrypt(t.nextKey(k), t.data);
+    }
+
+    @Benchmark
+    public int lruCache_directBuffer(TenantKeys k, ThreadState t) throws GeneralSecurityException {
+        t.directIn.rewind();
+        t.directOut.clear();
+        return cache.encrypt(t.nextKey(k), t.directIn, t.directOut);
+    }
+
+    /**
+     * The baselines without a key cache - in their own class, so they do not run once per cacheSize.
+     */
+    @Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(3)
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(16)
+    public static class NoCacheJMH {
+
+        @Benchmark
+        public byte[] newEachTime(TenantKeys k, ThreadState t) throws GeneralSecurityException {
+            return encrypt(newCipher(), t.nextKey(k), t);
+        }
+
+        /**
+         * CipherCacheThreadLocalJMH.threadLocal_differentKey - one Cipher per thread, re-keyed on every key change.
+         */
+        @Benchmark
+        public byte[] threadLocal_reinit(TenantKeys k, ThreadState t) throws GeneralSecurityException {
+            return encrypt(CIPHERS.get(), t.nextKey(k), t);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()//
+                .include(CipherKeyCacheJMH.class.getName())//
+                .result(String.format("%s_%s.json",
+                        DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
+                        CipherKeyCacheJMH.class.getSimpleName()))
+                .addProfiler(GCProfiler.class)//
+                .build();
+        new Runner(opt).run();
+    }
+}
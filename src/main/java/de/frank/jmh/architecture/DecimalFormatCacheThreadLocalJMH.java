@@ -1,6 +1,7 @@
 package de.frank.jmh.architecture;
 
 import com.yevdo.jwildcard.*;
+import de.frank.impl.format.FixedDecimalFormatter;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.profile.*;
 import org.openjdk.jmh.runner.*;
@@ -27,6 +28,15 @@ threadLocal   314159265358979323846.0  thrpt     2.215.016   ops/s    256 B/op
 threadLocal    3141592653.58979323846  thrpt     2.443.725   ops/s    184 B/op
 threadLocal    3.14159265358979323846  thrpt     2.991.874   ops/s    176 B/op
 
+Q: Can we get rid of the remaining 160-256 B/op - we format millions of prices per second?
+A: FixedDecimalFormatter: shortest digits (Schubfach) + HALF_EVEN rounding in long arithmetic, one shared immutable
+   instance, writes straight into a reused StringBuilder/byte[].
+   Expectations: fixedFormatter_builder/_bytes 0 B/op, an order of magnitude above threadLocal in ops/s
+   (~20-40ns per value), fixedFormatter_string only pays for the String (~48-80 B/op). 314159265358979323846.0 takes the
+   slower "huge" path (> 2^53: shortest digits padded with zeros) - still allocation free.
+   Same output as DecimalFormat("0.000") for all these values - see FixedDecimalFormatter for the (huge value) quirks
+   it does not copy.
+
 */
 
 /**
@@ -42,6 +52,8 @@ threadLocal    3.14159265358979323846  thrpt     2.991.874   ops/s    176 B/op
 @Threads(16)
 public class DecimalFormatCacheThreadLocalJMH {
 
+    private static final FixedDecimalFormatter FIXED = FixedDecimalFormatter.ofPattern("0.000");
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()//
                 .include(JWildcard.wildcardToRegex(DecimalFormatCacheThreadLocalJMH.class.getName() + "*"))//
@@ -52,6 +64,15 @@ public class DecimalFormatCacheThreadLocalJMH {
         new Runner(opt).run();
     }
 
+    /**
+     * Per thread output buffers, reused by the fixedFormatter benchmarks.
+     */
+    @State(Scope.Thread)
+    public static class Buffers {
+        final StringBuilder sb = new StringBuilder(FIXED.maxLength());
+        final byte[] bytes = new byte[FIXED.maxLength()];
+    }
+
     public static class DecimalFormatJMH {
         private static final ThreadLocal<DecimalFormat> FORMATTERS = ThreadLocal.withInitial(DecimalFormatJMH::getDecimalFormat);
 
@@ -93,6 +114,22 @@ public class DecimalFormatCacheThreadLocalJMH {
         public String double_threadLocal(MyState s) {
             return FORMATTERS.get().format(s.aDouble);
         }
+
+        @Benchmark
+        public String double_fixedFormatter_string(MyState s) {
+            return FIXED.format(s.aDouble);
+        }
+
+        @Benchmark
+        public StringBuilder double_fixedFormatter_builder(MyState s, Buffers b) {
+            b.sb.setLength(0);
+            return FIXED.format(s.aDouble, b.sb);
+        }
+
+        @Benchmark
+        public int double_fixedFormatter_bytes(MyState s, Buffers b) {
+            return FIXED.format(s.aDouble, b.bytes, 0);
+        }
     }
 
     public static class FloatDecimalFormatJMH {
@@ -119,6 +156,22 @@ public class DecimalFormatCacheThreadLocalJMH {
             return FORMATTERS.get().format(s.aFloat);
         }
 
+        @Benchmark
+        public String float_fixedFormatter_string(MyState s) {
+            return FIXED.format(s.aFloat);
+        }
+
+        @Benchmark
+        public StringBuilder float_fixedFormatter_builder(MyState s, Buffers b) {
+            b.sb.setLength(0);
+            return FIXED.format(s.aFloat, b.sb);
+        }
+
+        @Benchmark
+        public int float_fixedFormatter_bytes(MyState s, Buffers b) {
+            return FIXED.format(s.aFloat, b.bytes, 0);
+        }
+
 
     }
 }
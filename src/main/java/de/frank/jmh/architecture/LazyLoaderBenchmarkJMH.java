@@ -16,6 +16,7 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -98,6 +99,8 @@ public class LazyLoaderBenchmarkJMH {
         Supplier<String> doubleCheckedLocking = DCLLazyLoader.of(this::expensiveOperation);
         Supplier<String> doubleCheckedLockingBool = DCLLazyLoaderBool.of(this::expensiveOperation);
         Supplier<String> atomicSafeReference = AtomicSafeLazyLoader.of(this::expensiveOperation);
+        //eager - starts computing right away, see AsyncLazyLoaderJMH for the time-to-ready
+        Supplier<String> asyncEager = AsyncLazyLoaderJMH.AsyncLazyLoader.of(this::expensiveOperation, ForkJoinPool.commonPool());
 
         //3rd party library impls
 
@@ -183,6 +186,11 @@ public class LazyLoaderBenchmarkJMH {
         return state.atomicSafeReference.get();
     }
 
+    @Benchmark
+    public String asyncEager(MyState state) {
+        return state.asyncEager.get();
+    }
+
     @Benchmark
     public String lombokLazyGetter(MyState state) {
         return state.getLombokLazyGetter();
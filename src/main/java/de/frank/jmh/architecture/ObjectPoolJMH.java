@@ -0,0 +1,294 @@
+package de.frank.jmh.architecture;
+
+import de.frank.impl.pool.ObjectPool;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import stormpot.Allocator;
+import stormpot.BasePoolable;
+import stormpot.Pool;
+import stormpot.Slot;
+import stormpot.Timeout;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*--
+Q: The ThreadLocal caches (DigestCacheThreadLocalJMH, CipherCacheThreadLocalJMH, CachedJaxbXmlMapper) assume a small,
+   fixed set of long living platform threads. What happens with virtual threads - one thread per task?
+A: Every virtual thread gets a fresh ThreadLocal -> every task creates its own MessageDigest, the cache is pure overhead.
+   A bounded pool shared by all threads (striped CAS slots) or one object per carrier thread keeps reuse independent of
+   the number of virtual threads.
+
+Setup: one benchmark op = start 'virtualThreads' virtual threads, each hashing 10x 200 bytes with SHA-256 borrowed from
+the pool. Pools are sized 2x cores. The 'created' line printed on TearDown shows the factory calls (= misses).
+
+Expectations (run it - numbers depend heavily on core count):
+- threadLocal        ~ newEachTime for virtualThreads > 1: created == #virtual threads, only the 9 follow up hashes of
+                       a thread hit the cache.
+- striped            flat allocation rate, created ~ pool size, no blocking
+- carrierThreadLocal ~ striped, slightly faster on hit (no slot scan) - only with the --add-exports below,
+                       without it falls back to the striped overflow for virtual threads
+- stormpot           bounded as well, but claim() BLOCKS when all objects are in use -> queueing at 10k threads
+- commonsPool2       same plus a lock + LinkedBlockingDeque per borrow/return -> the slowest pool under contention
+*/
+
+/**
+ * Compares the {@link ObjectPool} strategies to stormpot and commons-pool2 from 1 to 10k virtual threads.
+ *
+ * @author Michael Frank
+ * @version 1.0 19.10.2026
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = "--add-exports=java.base/jdk.internal.misc=ALL-UNNAMED")
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ObjectPoolJMH {
+
+    private static final int OPS_PER_THREAD = 10;
+    private static final int DATA_LEN = 200;
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int virtualThreads;
+
+    @Param({"threadLocal", "striped", "carrierThreadLocal", "stormpot", "commonsPool2", "newEachTime"})
+    public String pool;
+
+    private byte[] data;
+    private Hasher hasher;
+    private final LongAdder sink = new LongAdder();
+
+    /**
+     * Hashes with a MessageDigest obtained from the pool under test.
+     */
+    private interface Hasher extends AutoCloseable {
+        byte[] hash(byte[] data) throws Exception;
+
+        long created();
+
+        @Override
+        default void close() {
+        }
+    }
+
+    @Setup
+    public void setup() {
+        data = RandomStringUtils.randomAlphanumeric(DATA_LEN).getBytes();
+        hasher = switch (pool) {
+            case "threadLocal" -> objectPool(ObjectPool.Strategy.THREAD_LOCAL);
+            case "striped" -> objectPool(ObjectPool.Strategy.STRIPED);
+            case "carrierThreadLocal" -> objectPool(ObjectPool.Strategy.CARRIER_THREAD_LOCAL);
+            case "stormpot" -> new StormpotHasher();
+            case "commonsPool2" -> new CommonsPool2Hasher();
+            case "newEachTime" -> new NewEachTimeHasher();
+            default -> throw new IllegalArgumentException("unknown pool: " + pool);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%s: created %d digests%n", pool, hasher.created());
+        hasher.close();
+    }
+
+    /**
+     * A failing task (e.g. a stormpot claim timeout) fails the benchmark - it must not be scored as a fast op.
+     */
+    @Benchmark
+    public long hash() throws Exception {
+        Future<?>[] tasks = new Future<?>[virtualThreads];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < virtualThreads; t++) {
+                tasks[t] = executor.submit(this::hashTask);
+            }
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        return sink.sum();
+    }
+
+    private Void hashTask() throws Exception {
+        for (int i = 0; i < OPS_PER_THREAD; i++) {
+            sink.add(hasher.hash(data)[0]);
+        }
+        return null;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Hasher objectPool(ObjectPool.Strategy strategy) {
+        ObjectPool<MessageDigest> digests = ObjectPool.create(strategy, ObjectPoolJMH::newDigest,
+                MessageDigest::reset, POOL_SIZE);
+        return new Hasher() {
+            @Override
+            public byte[] hash(byte[] data) {
+                return digests.apply(d -> d.digest(data));
+            }
+
+            @Override
+            public long created() {
+                return digests.createdCount();
+            }
+        };
+    }
+
+    private static class NewEachTimeHasher implements Hasher {
+        private final LongAdder created = new LongAdder();
+
+        @Override
+        public byte[] hash(byte[] data) {
+            created.increment();
+            return newDigest().digest(data);
+        }
+
+        @Override
+        public long created() {
+            return created.sum();
+        }
+    }
+
+    private static class StormpotHasher implements Hasher {
+        private static final Timeout TIMEOUT = new Timeout(10, TimeUnit.SECONDS);
+
+        private final LongAdder created = new LongAdder();
+        private final Pool<PooledDigest> digests = Pool.from(new Allocator<PooledDigest>() {
+            @Override
+            public PooledDigest allocate(Slot slot) {
+                created.increment();
+                return new PooledDigest(slot, newDigest());
+            }
+
+            @Override
+            public void deallocate(PooledDigest poolable) {
+            }
+        }).setSize(POOL_SIZE).build();
+
+        private static class PooledDigest extends BasePoolable {
+            final MessageDigest digest;
+
+            PooledDigest(Slot slot, MessageDigest digest) {
+                super(slot);
+                this.digest = digest;
+            }
+        }
+
+        @Override
+        public byte[] hash(byte[] data) throws InterruptedException {
+            PooledDigest pooled = digests.claim(TIMEOUT);
+            if (pooled == null) {
+                throw new IllegalStateException("claim timed out");
+            }
+            try {
+                return pooled.digest.digest(data);
+            } finally {
+                pooled.digest.reset();
+                pooled.release();
+            }
+        }
+
+        @Override
+        public long created() {
+            return created.sum();
+        }
+
+        @Override
+        public void close() {
+            digests.shutdown();
+        }
+    }
+
+    private static class CommonsPool2Hasher implements Hasher {
+        private final LongAdder created = new LongAdder();
+        private final GenericObjectPool<MessageDigest> digests;
+
+        CommonsPool2Hasher() {
+            GenericObjectPoolConfig<MessageDigest> config = new GenericObjectPoolConfig<>();
+            config.setMaxTotal(POOL_SIZE);
+            config.setMaxIdle(POOL_SIZE);
+            digests = new GenericObjectPool<>(new BasePooledObjectFactory<>() {
+                @Override
+                public MessageDigest create() {
+                    created.increment();
+                    return newDigest();
+                }
+
+                @Override
+                public PooledObject<MessageDigest> wrap(MessageDigest digest) {
+                    return new DefaultPooledObject<>(digest);
+                }
+
+                @Override
+                public void passivateObject(PooledObject<MessageDigest> p) {
+                    p.getObject().reset();
+                }
+            }, config);
+        }
+
+        @Override
+        public byte[] hash(byte[] data) throws Exception {
+            MessageDigest digest = digests.borrowObject();
+            try {
+                return digest.digest(data);
+            } finally {
+                digests.returnObject(digest);
+            }
+        }
+
+        @Override
+        public long created() {
+            return created.sum();
+        }
+
+        @Override
+        public void close() {
+            digests.close();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()//
+                .include(ObjectPoolJMH.class.getName())//
+                .result(String.format("%s_%s.json",
+                        DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
+                        ObjectPoolJMH.class.getSimpleName()))
+                .addProfiler(GCProfiler.class).build();
+        new Runner(opt).run();
+    }
+}
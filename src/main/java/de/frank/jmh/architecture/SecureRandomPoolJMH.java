@@ -0,0 +1,272 @@
+package de.frank.jmh.architecture;
+
+import de.frank.jmh.algorithms.UUIDFastImplsJMH.FastUUID;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+
+/**
+ * Taking the SecureRandom step off the request's critical path.
+ * <p>
+ * Even with a ThreadLocal&lt;SecureRandom&gt; (see {@link SecureRandomThreadLocalJMH}) every ID pays for the
+ * SHA1PRNG/DRBG step - and once in a while for reseeding - while the request waits. {@link SecureRandomPool} fills a
+ * ring buffer with secure random bytes in a daemon thread. A request thread claims 16 bytes with a single
+ * getAndIncrement() on the shared cursor.
+ * <p>
+ * Caveats:
+ * <ul>
+ * <li>the pool only helps if the average demand is below the producer's rate - bursts are absorbed by the capacity.
+ * If the pool is drained, callers fall back to a ThreadLocal SecureRandom</li>
+ * <li>pre-generated secrets live in memory longer - fine for IDs, think twice for key material</li>
+ * </ul>
+ * Every op first burns workTokens of CPU (the rest of the request) - this limits the demand of the 16 threads:
+ * <ul>
+ * <li>workTokens 0: flat out - the ring is drained within microseconds, ringBuffer mostly measures the fallback</li>
+ * <li>workTokens 1000/10000: demand around/below the producer's rate - most UUIDs come from the ring</li>
+ * </ul>
+ * The secondary results ringBuffer:served and ringBuffer:fallbacks count both paths during the measurement - read the
+ * p0.99/p0.999 lines of the SampleTime output together with served / (served + fallbacks), not the average. Compare
+ * to threadLocal with the same workTokens - the scores include the work.
+ *
+ * @author Michael Frank
+ * @version 1.0 19.10.2026
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode({Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(16)
+@Fork(3)
+public class SecureRandomPoolJMH {
+
+    @Param({"1024", "65536"})
+    private int capacity;
+
+    /**
+     * Blackhole.consumeCPU tokens per op - the demand rate
+     */
+    @Param({"0", "1000", "10000"})
+    private int workTokens;
+
+    private SecureRandomPool pool;
+
+    /**
+     * Where the UUIDs of ringBuffer came from - summed over the threads and the measurement iterations.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PoolHits implements SecureRandomPool.Outcome {
+        public long served;
+        public long fallbacks;
+
+        @Override
+        public void served() {
+            served++;
+        }
+
+        @Override
+        public void fallback() {
+            fallbacks++;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        pool = new SecureRandomPool(capacity, SecureRandomThreadLocalJMH::getSHA1Instance);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()//
+                .include(SecureRandomPoolJMH.class.getName())//
+                .result(String.format("%s_%s.json",
+                        DateTimeFormatter.ISO_INSTANT.format(Instant.now()),
+                        SecureRandomPoolJMH.class.getSimpleName()))
+                .addProfiler(GCProfiler.class)//
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    public UUID threadLocal() {
+        Blackhole.consumeCPU(workTokens);
+        return FastUUID.secureRandomUUID();
+    }
+
+    @Benchmark
+    public UUID ringBuffer(PoolHits hits) {
+        Blackhole.consumeCPU(workTokens);
+        return pool.randomUUID(hits);
+    }
+
+
+    /**
+     * Ring buffer of 16 byte slots filled with SecureRandom bytes by a single daemon producer thread.
+     * <p>
+     * Every slot has a sequence number (state):
+     * <ul>
+     * <li>state == seq     - empty, the producer may fill it for seq</li>
+     * <li>state == seq + 1 - filled (published) for seq</li>
+     * <li>state == seq + capacity - consumed or cancelled, empty for the next lap</li>
+     * </ul>
+     * Consumers claim a seq with one getAndIncrement() on the cursor. If the claimed slot is not filled yet (pool
+     * drained) the consumer cancels the slot and falls back to its ThreadLocal SecureRandom - it never waits for the
+     * producer.
+     */
+    public static class SecureRandomPool implements AutoCloseable {
+        private static final VarHandle BE_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+        private static final int CHUNK_SLOTS = 256; //one nextBytes() call per 4k
+        private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+        private final int capacity;
+        private final int mask;
+        private final long[] data; //2 longs per slot
+        private final AtomicLongArray state;
+        private final AtomicLong cursor = new AtomicLong();
+        private final Thread producer;
+        private final ThreadLocal<SecureRandom> fallback;
+        private volatile boolean running = true;
+
+        /**
+         * Callback for where the bytes of a UUID came from - e.g. per thread counters, without contention.
+         */
+        public interface Outcome {
+            Outcome IGNORE = new Outcome() {
+                @Override
+                public void served() {
+                }
+
+                @Override
+                public void fallback() {
+                }
+            };
+
+            void served();
+
+            void fallback();
+        }
+
+        /**
+         * @param capacity number of pre-generated 16 byte slots - power of 2
+         */
+        public SecureRandomPool(int capacity, Supplier<SecureRandom> secureRandoms) {
+            if (Integer.bitCount(capacity) != 1) {
+                throw new IllegalArgumentException("capacity must be a power of 2: " + capacity);
+            }
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.data = new long[capacity * 2];
+            this.state = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                state.set(i, i);
+            }
+            this.fallback = ThreadLocal.withInitial(secureRandoms);
+            SecureRandom producerRandom = secureRandoms.get();
+            this.producer = new Thread(() -> produce(producerRandom), "SecureRandomPool-producer");
+            producer.setDaemon(true);
+            producer.start();
+        }
+
+        /**
+         * @return type 4 UUID
+         */
+        public UUID randomUUID() {
+            return randomUUID(Outcome.IGNORE);
+        }
+
+        /**
+         * @param outcome told whether the UUID came from the ring or from the fallback
+         * @return type 4 UUID
+         */
+        public UUID randomUUID(Outcome outcome) {
+            long seq = cursor.getAndIncrement();
+            int slot = (int) seq & mask;
+            long msb;
+            long lsb;
+            for (int spins = 0; ; spins++) {
+                long s = state.get(slot);
+                if (s == seq + 1) { //filled
+                    msb = data[slot * 2];
+                    lsb = data[slot * 2 + 1];
+                    state.lazySet(slot, seq + capacity);
+                    outcome.served();
+                    break;
+                }
+                if (s == seq && state.compareAndSet(slot, seq, seq + capacity)) { //empty - cancel, producer skips it
+                    byte[] bytes = new byte[16];
+                    fallback.get().nextBytes(bytes);
+                    msb = (long) BE_LONG.get(bytes, 0);
+                    lsb = (long) BE_LONG.get(bytes, 8);
+                    outcome.fallback();
+                    break;
+                }
+                //s < seq: cursor lapped the ring, the consumer of the previous lap is about to release the slot
+                if (spins < 64) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield(); //previous lap consumer may be descheduled
+                }
+            }
+            msb = (msb & ~0xF000L) | 0x4000L; /* version 4 */
+            lsb = (lsb & 0x3fFFFFFFFFFFFFFFL) | 0x8000000000000000L; /* IETF variant */
+            return new UUID(msb, lsb);
+        }
+
+        private void produce(SecureRandom r) {
+            byte[] chunk = new byte[CHUNK_SLOTS * 16];
+            int chunkPos = chunk.length;
+            long seq = 0;
+            while (running) {
+                int slot = (int) seq & mask;
+                long s = state.get(slot);
+                if (s > seq) { //cancelled by a consumer
+                    seq++;
+                    continue;
+                }
+                if (s < seq) { //full - previous lap not consumed yet
+                    LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+                    continue;
+                }
+                if (chunkPos == chunk.length) {
+                    r.nextBytes(chunk);
+                    chunkPos = 0;
+                }
+                data[slot * 2] = (long) BE_LONG.get(chunk, chunkPos);
+                data[slot * 2 + 1] = (long) BE_LONG.get(chunk, chunkPos + 8);
+                if (state.compareAndSet(slot, seq, seq + 1)) {
+                    chunkPos += 16; //bytes of a cancelled slot are not used
+                }
+                seq++;
+            }
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            producer.interrupt();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import lombok.experimental.*;
 import java.io.*;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
 
 import static de.frank.jmh.model.HierarchicalMockModel.DeepCopyUtil.*;
@@ -39,6 +40,70 @@ public class HierarchicalMockModel implements Serializable {
         this(src.name, deepCopyList(src.subTypes, ModelLevel1::new));
     }
 
+    /**
+     * Deep copy like the copy constructor, but big trees (&gt;= minNodes nodes) are copied in parallel on the pool -
+     * split at ModelLevel1 boundaries. The level1 nodes are independent subtrees, so the tasks share nothing but the
+     * result array.
+     *
+     * @param minNodes total node count from which the copy is forked - below it runs sequentially in the caller
+     */
+    public static HierarchicalMockModel parallelCopy(HierarchicalMockModel src, ForkJoinPool pool, int minNodes) {
+        if (src.subTypes == null || src.subTypes.size() < 2 || nodeCount(src) < minNodes) {
+            return new HierarchicalMockModel(src);
+        }
+        ModelLevel1[] copies = new ModelLevel1[src.subTypes.size()];
+        int leafSize = Math.max(1, copies.length / (pool.getParallelism() * 4));
+        pool.invoke(new Level1CopyTask(src.subTypes, copies, 0, copies.length, leafSize));
+        return new HierarchicalMockModel(src.name, new ArrayList<>(Arrays.asList(copies)));
+    }
+
+    /**
+     * @return nodes of the tree - null entries count as nodes (the copy keeps them), without subtrees
+     */
+    private static int nodeCount(HierarchicalMockModel src) {
+        int nodes = 1 + src.subTypes.size();
+        for (ModelLevel1 level1 : src.subTypes) {
+            if (level1 != null && level1.subTypes != null) {
+                nodes += level1.subTypes.size();
+                for (ModelLevel2 level2 : level1.subTypes) {
+                    nodes += level2 == null || level2.subTypes == null ? 0 : level2.subTypes.size();
+                }
+            }
+        }
+        return nodes;
+    }
+
+    @SuppressWarnings("serial") //never serialized
+    private static class Level1CopyTask extends RecursiveAction {
+        private final List<ModelLevel1> src;
+        private final ModelLevel1[] dst;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        Level1CopyTask(List<ModelLevel1> src, ModelLevel1[] dst, int from, int to, int leafSize) {
+            this.src = src;
+            this.dst = dst;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    ModelLevel1 level1 = src.get(i);
+                    dst[i] = level1 == null ? null : new ModelLevel1(level1);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Level1CopyTask(src, dst, from, mid, leafSize),
+                        new Level1CopyTask(src, dst, mid, to, leafSize));
+            }
+        }
+    }
+
     public static HierarchicalMockModel newInstance(int level1Nodes, int level2Nodes, int level3Nodes) {
         return newInstance("", level1Nodes, level2Nodes, level3Nodes);
     }
@@ -178,6 +243,79 @@ public class HierarchicalMockModel implements Serializable {
         }
     }
 
+    /**
+     * Copy-on-write (persistent) copy: O(1) to create. It shares all unchanged subtrees with the source and copies
+     * only the path root -&gt; node on the first write access to that node (shallow copies - the siblings stay shared).
+     * <p>
+     * Contract: the source must not be modified anymore (it is shared), and the copy must only be modified through
+     * the *ForWrite accessors - any other node reachable from {@link #root()} may still be shared with the source.
+     * {@link #materialize()} turns it into a fully independent deep copy.
+     */
+    public static class CopyOnWrite {
+        private final HierarchicalMockModel source;
+        private final Set<Object> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+        private HierarchicalMockModel root; //null until the first write
+
+        public CopyOnWrite(HierarchicalMockModel source) {
+            this.source = source;
+        }
+
+        /**
+         * @return read only view - the source itself until the first write
+         */
+        public HierarchicalMockModel root() {
+            return root != null ? root : source;
+        }
+
+        public HierarchicalMockModel rootForWrite() {
+            if (root == null) {
+                root = new HierarchicalMockModel(source.name, new ArrayList<>(source.subTypes));
+                owned.add(root);
+            }
+            return root;
+        }
+
+        public ModelLevel1 level1ForWrite(int level1Idx) {
+            List<ModelLevel1> siblings = rootForWrite().subTypes;
+            ModelLevel1 node = siblings.get(level1Idx);
+            if (!owned.contains(node)) {
+                node = new ModelLevel1(node.name, node.aInt, node.aDouble, node.aDate, new ArrayList<>(node.subTypes));
+                owned.add(node);
+                siblings.set(level1Idx, node);
+            }
+            return node;
+        }
+
+        public ModelLevel2 level2ForWrite(int level1Idx, int level2Idx) {
+            List<ModelLevel2> siblings = level1ForWrite(level1Idx).subTypes;
+            ModelLevel2 node = siblings.get(level2Idx);
+            if (!owned.contains(node)) {
+                node = new ModelLevel2(node.name, node.aInt, node.aDouble, node.aDate, new ArrayList<>(node.subTypes));
+                owned.add(node);
+                siblings.set(level2Idx, node);
+            }
+            return node;
+        }
+
+        public ModelLevel3 level3ForWrite(int level1Idx, int level2Idx, int level3Idx) {
+            List<ModelLevel3> siblings = level2ForWrite(level1Idx, level2Idx).subTypes;
+            ModelLevel3 node = siblings.get(level3Idx);
+            if (!owned.contains(node)) {
+                node = new ModelLevel3(node);
+                owned.add(node);
+                siblings.set(level3Idx, node);
+            }
+            return node;
+        }
+
+        /**
+         * @return a deep copy sharing nothing with the source
+         */
+        public HierarchicalMockModel materialize() {
+            return new HierarchicalMockModel(root());
+        }
+    }
+
     public static class DeepCopyUtil {
 
         public static <T> List<T> deepCopyList(List<T> src, UnaryOperator<T> copyFunction) {
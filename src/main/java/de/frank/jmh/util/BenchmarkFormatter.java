@@ -5,9 +5,12 @@ import org.openjdk.jmh.results.RunResult;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -67,6 +70,31 @@ public class BenchmarkFormatter {
      * @param groupByThisParam
      */
     public static void displayAsMatrix(Collection<RunResult> results, String groupByThisParam) {
+        displayAsMatrix(results, groupByThisParam, "", x -> Long.toString(Math.round(x.getPrimaryResult().getScore())));
+    }
+
+    /**
+     * Same as {@link #displayAsMatrix(Collection, String)}, but every cell additionally shows a second, externally
+     * measured value next to the benchmark score, e.g. the retained heap of the benchmarked data structure.
+     * <p>
+     * e.g.
+     * Units: ns/op | B/prefix                      20         200        2000
+     * startsWith_naiveList                   102 | 87  1012 | 84  6990 | 85
+     *
+     * @param results          jmh results
+     * @param groupByThisParam the (only) param used as columns
+     * @param extraUnit        unit of the additional value
+     * @param extraValue       (benchmarkMethodName, paramValue) -> additional value or null if not available
+     */
+    public static void displayAsMatrix(Collection<RunResult> results, String groupByThisParam, String extraUnit, BiFunction<String, String, Object> extraValue) {
+        displayAsMatrix(results, groupByThisParam, " | " + extraUnit, x -> {
+            String benchmark = x.getParams().getBenchmark();
+            Object extra = extraValue.apply(benchmark.substring(benchmark.lastIndexOf('.') + 1), x.getParams().getParam(groupByThisParam));
+            return Math.round(x.getPrimaryResult().getScore()) + " | " + (extra == null ? "-" : extra);
+        });
+    }
+
+    private static void displayAsMatrix(Collection<RunResult> results, String groupByThisParam, String unitSuffix, Function<RunResult, String> cell) {
         Optional<RunResult> resultWithMoreThenOneParam = results.stream().filter(x -> x.getParams().getParamsKeys().size() > 1).findFirst();
         if (resultWithMoreThenOneParam.isPresent()) {
             System.out.println("ERROR! Cannot display as Matrix! Only one param is allowed");
@@ -75,35 +103,49 @@ public class BenchmarkFormatter {
         //group by benchmark name, so that we can print all the param results as columns
         Map<String, List<RunResult>> grouped = results.stream().collect(Collectors.groupingBy(x -> x.getParams().getBenchmark(), toSortedList(compareByParam(groupByThisParam))));
 
+        Map.Entry<String, List<RunResult>> firstLine = grouped.entrySet().iterator().next();
+        List<String> colNames = firstLine.getValue().stream().map(x -> x.getParams().getParam(groupByThisParam)).collect(Collectors.toList());
+
+        Map<String, List<String>> lines = new LinkedHashMap<>();
+        for (Map.Entry<String, List<RunResult>> line : grouped.entrySet()) {
+            lines.put(line.getKey(), line.getValue().stream().map(cell).collect(Collectors.toList()));
+        }
+        displayAsMatrix("Units: " + firstLine.getValue().get(0).getPrimaryResult().getScoreUnit() + unitSuffix, colNames, lines);
+    }
+
+    /**
+     * Prints a pre-formatted matrix: one line per key of lines, one column per colName.
+     *
+     * @param header   upper left cell - usually the unit of the values
+     * @param colNames column headers
+     * @param lines    line name -> cell values (same order as colNames)
+     */
+    public static void displayAsMatrix(String header, List<String> colNames, Map<String, List<String>> lines) {
         //Table boundaries
-        int columns = grouped.values().stream().mapToInt(List::size).max().orElse(3);
-        int benchmarkNameLen = results.stream().mapToInt(x -> x.getParams().getBenchmark().length()).max().orElse(15);
-        int paramNameLen = results.stream().mapToInt(x -> x.getParams().getParam(groupByThisParam).length()).max().orElse(5);
-        int resultValueLen = results.stream().mapToInt(x -> Long.toString(Math.round(x.getPrimaryResult().getScore())).length()).max().orElse(5);
+        int columns = Math.max(colNames.size(), lines.values().stream().mapToInt(List::size).max().orElse(3));
+        int benchmarkNameLen = Math.max(header.length(), lines.keySet().stream().mapToInt(String::length).max().orElse(15));
+        int paramNameLen = colNames.stream().mapToInt(String::length).max().orElse(5);
+        int resultValueLen = lines.values().stream().flatMap(List::stream).mapToInt(String::length).max().orElse(5);
         int colLen = Math.max(paramNameLen, resultValueLen);
 
         //create format strings matching boundaries
         String nameColFormat = "%-" + benchmarkNameLen + "s";
-        String valueColFormat = "";
-        for (int i = 0; i < columns; i++) {
-            valueColFormat += "  %" + colLen + "s";
-        }
-
-        Map.Entry<String, List<RunResult>> firstLine = grouped.entrySet().iterator().next();
-        String[] colNames = firstLine.getValue().stream().map(x -> x.getParams().getParam(groupByThisParam)).toArray(String[]::new);
+        String valueColFormat = "  %" + colLen + "s";
 
         StringBuilder sb = new StringBuilder();
         //write header
-        sb.append(format(nameColFormat, "Units: " + firstLine.getValue().get(0).getPrimaryResult().getScoreUnit()));
-        sb.append(format(valueColFormat, colNames));
+        sb.append(format(nameColFormat, header));
+        for (int i = 0; i < columns; i++) {
+            sb.append(format(valueColFormat, i < colNames.size() ? colNames.get(i) : ""));
+        }
         sb.append('\n');
 
         //write values
-        for (Map.Entry<String, List<RunResult>> line : grouped.entrySet()) {
-            String[] resultValues = line.getValue().stream().map(x -> Long.toString(Math.round(x.getPrimaryResult().getScore()))).toArray(String[]::new);
-
+        for (Map.Entry<String, List<String>> line : lines.entrySet()) {
             sb.append(format(nameColFormat, line.getKey()));
-            sb.append(format(valueColFormat, resultValues));
+            for (int i = 0; i < columns; i++) {
+                sb.append(format(valueColFormat, i < line.getValue().size() ? line.getValue().get(i) : ""));
+            }
             sb.append('\n');
         }
         System.out.println(sb.toString());